@@ -0,0 +1,86 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Java Design Patterns Collection
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.designpatterns;
+
+import com.designpatterns.creational.singleton.SingletonDemo;
+import com.designpatterns.creational.factory.FactoryMethodDemo;
+import com.designpatterns.creational.abstractfactory.AbstractFactoryDemo;
+import com.designpatterns.creational.builder.BuilderDemo;
+import com.designpatterns.creational.prototype.PrototypeDemo;
+import com.designpatterns.structural.adapter.AdapterDemo;
+import com.designpatterns.structural.bridge.BridgeDemo;
+import com.designpatterns.structural.composite.CompositeDemo;
+import com.designpatterns.structural.decorator.DecoratorDemo;
+import com.designpatterns.structural.facade.FacadeDemo;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Opt-in benchmarks for the pattern implementations.
+ * 
+ * <p>These runs build large data sets, write temporary files and take minutes,
+ * so they are kept out of {@link MainApp}. Run everything, or name the patterns
+ * to run:</p>
+ * <pre>
+ * java -cp target/classes com.designpatterns.BenchmarkApp composite decorator
+ * mvn -Pbenchmarks exec:java
+ * </pre>
+ * <p>The largest runs expect a heap of at least 2 GB ({@code -Xmx2g}).</p>
+ */
+public class BenchmarkApp {
+
+    /**
+     * Runs the selected benchmarks in declaration order.
+     * 
+     * @param args pattern names to run; all patterns when empty
+     */
+    public static void main(String[] args) {
+        Map<String, Runnable> benchmarks = new LinkedHashMap<>();
+        benchmarks.put("singleton", SingletonDemo::benchmark);
+        benchmarks.put("factory", FactoryMethodDemo::benchmark);
+        benchmarks.put("abstractfactory", AbstractFactoryDemo::benchmark);
+        benchmarks.put("builder", BuilderDemo::benchmark);
+        benchmarks.put("prototype", PrototypeDemo::benchmark);
+        benchmarks.put("adapter", AdapterDemo::benchmark);
+        benchmarks.put("bridge", BridgeDemo::benchmark);
+        benchmarks.put("composite", CompositeDemo::benchmark);
+        benchmarks.put("decorator", DecoratorDemo::benchmark);
+        benchmarks.put("facade", FacadeDemo::benchmark);
+        
+        for (String name : args) {
+            if (!benchmarks.containsKey(name)) {
+                System.err.println("Unknown benchmark '" + name + "', expected one of " + benchmarks.keySet());
+                System.exit(2);
+            }
+        }
+        benchmarks.forEach((name, benchmark) -> {
+            if (args.length == 0 || Arrays.asList(args).contains(name)) {
+                benchmark.run();
+            }
+        });
+    }
+}
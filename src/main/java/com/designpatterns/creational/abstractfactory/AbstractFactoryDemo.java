@@ -1,29 +1,136 @@
 package com.designpatterns.creational.abstractfactory;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
 /**
  * Abstract Factory Pattern - Creates families of related objects.
  * Simple example: Different UI themes (Windows/Mac) creating buttons and checkboxes.
  */
 public class AbstractFactoryDemo {
     
-    // Abstract products
-    interface Button { void render(); }
-    interface Checkbox { void render(); }
+    // Abstract products - render() draws immediately, render(buffer) queues a draw op for the frame
+    interface Button { void render(); void render(RenderBuffer buffer); }
+    interface Checkbox { void render(); void render(RenderBuffer buffer); }
     
     // Concrete products for Windows
     static class WindowsButton implements Button {
+        private static final byte[] DRAW_OP = RenderBuffer.encode("Windows Button");
         public void render() { System.out.println("Windows Button"); }
+        public void render(RenderBuffer buffer) { buffer.add(DRAW_OP); }
     }
     static class WindowsCheckbox implements Checkbox {
+        private static final byte[] DRAW_OP = RenderBuffer.encode("Windows Checkbox");
         public void render() { System.out.println("Windows Checkbox"); }
+        public void render(RenderBuffer buffer) { buffer.add(DRAW_OP); }
     }
     
     // Concrete products for Mac
     static class MacButton implements Button {
+        private static final byte[] DRAW_OP = RenderBuffer.encode("Mac Button");
         public void render() { System.out.println("Mac Button"); }
+        public void render(RenderBuffer buffer) { buffer.add(DRAW_OP); }
     }
     static class MacCheckbox implements Checkbox {
+        private static final byte[] DRAW_OP = RenderBuffer.encode("Mac Checkbox");
         public void render() { System.out.println("Mac Checkbox"); }
+        public void render(RenderBuffer buffer) { buffer.add(DRAW_OP); }
+    }
+    
+    // Per-frame command buffer shared by all widgets. Draw ops are pre-encoded byte
+    // arrays; flush() copies the whole frame into one reusable ByteBuffer and hands it
+    // to the channel in as few writes as the buffer size allows. Not thread-safe -
+    // a frame is built by the UI thread.
+    static class RenderBuffer {
+        private final WritableByteChannel out;
+        private final ByteBuffer frameBuffer;
+        private byte[][] ops = new byte[1024][];
+        private int opCount;
+        
+        // Frame metrics
+        private long frames;
+        private long totalOps;
+        private int lastFrameOps;
+        private long totalFlushNanos;
+        private long maxFlushNanos;
+        
+        public RenderBuffer(WritableByteChannel out, int bufferBytes) {
+            this.out = out;
+            this.frameBuffer = ByteBuffer.allocateDirect(bufferBytes);
+        }
+        
+        static byte[] encode(String text) {
+            return (text + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+        }
+        
+        public void add(byte[] op) {
+            if (op.length > frameBuffer.capacity()) {
+                throw new IllegalArgumentException("Draw op of " + op.length + " bytes exceeds the "
+                        + frameBuffer.capacity() + "-byte frame buffer");
+            }
+            if (opCount == ops.length) {
+                ops = Arrays.copyOf(ops, opCount * 2);
+            }
+            ops[opCount++] = op;
+        }
+        
+        // Ends the frame: one pass over the queued ops, writing only when the buffer fills.
+        // A failed write drops the rest of the frame so the next one starts clean.
+        public void flush() {
+            long start = System.nanoTime();
+            try {
+                for (int i = 0; i < opCount; i++) {
+                    byte[] op = ops[i];
+                    if (frameBuffer.remaining() < op.length) {
+                        drain();
+                    }
+                    frameBuffer.put(op);
+                }
+                drain();
+                long elapsed = System.nanoTime() - start;
+                frames++;
+                totalOps += opCount;
+                lastFrameOps = opCount;
+                totalFlushNanos += elapsed;
+                maxFlushNanos = Math.max(maxFlushNanos, elapsed);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                Arrays.fill(ops, 0, opCount, null);
+                opCount = 0;
+                frameBuffer.clear();
+            }
+        }
+        
+        private void drain() throws IOException {
+            frameBuffer.flip();
+            while (frameBuffer.hasRemaining()) {
+                out.write(frameBuffer);
+            }
+            frameBuffer.clear();
+        }
+        
+        public long getFrames() { return frames; }
+        public int getLastFrameOps() { return lastFrameOps; }
+        public double getAverageOpsPerFrame() { return frames == 0 ? 0 : (double) totalOps / frames; }
+        public double getAverageFlushMicros() { return frames == 0 ? 0 : totalFlushNanos / 1000.0 / frames; }
+        public double getMaxFlushMicros() { return maxFlushNanos / 1000.0; }
     }
     
     // Abstract factory
@@ -43,6 +150,81 @@ public class AbstractFactoryDemo {
         public Checkbox createCheckbox() { return new MacCheckbox(); }
     }
     
+    // Caching factory - widgets are immutable, so one prototype per family is shared by every caller
+    static class CachingUIFactory implements UIFactory {
+        private final Button button;
+        private final Checkbox checkbox;
+        
+        public CachingUIFactory(UIFactory family) {
+            this.button = family.createButton();
+            this.checkbox = family.createCheckbox();
+        }
+        
+        public Button createButton() { return button; }
+        public Checkbox createCheckbox() { return checkbox; }
+    }
+    
+    // Per-family cache of caching factories. prewarm() builds a family's prototypes in the
+    // background when a theme switch is predicted, so the switch itself allocates nothing.
+    static class ThemeCache {
+        // One daemon warmer shared by every cache; started on the first prewarm
+        private static final class Warmer {
+            static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "theme-warmer");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        
+        private final Map<String, Supplier<UIFactory>> families = new HashMap<>();
+        private final Map<String, CompletableFuture<CachingUIFactory>> warmed = new ConcurrentHashMap<>();
+        
+        // Families are registered up front, before the cache is shared between threads
+        public ThemeCache register(String theme, Supplier<UIFactory> family) {
+            families.put(theme, family);
+            return this;
+        }
+        
+        public CompletableFuture<CachingUIFactory> prewarm(String theme) {
+            Supplier<UIFactory> family = families.get(theme);
+            if (family == null) {
+                throw new IllegalArgumentException("Unknown theme: " + theme);
+            }
+            CompletableFuture<CachingUIFactory> future = warmed.get(theme);
+            if (future != null) {
+                return future;
+            }
+            CompletableFuture<CachingUIFactory> created = new CompletableFuture<>();
+            future = warmed.putIfAbsent(theme, created);
+            if (future != null) {
+                return future;
+            }
+            // A failed build is dropped so the next prewarm or forTheme retries it
+            created.whenComplete((factory, error) -> {
+                if (error != null) {
+                    warmed.remove(theme, created);
+                }
+            });
+            try {
+                Warmer.EXECUTOR.execute(() -> {
+                    try {
+                        created.complete(new CachingUIFactory(family.get()));
+                    } catch (Throwable t) {
+                        created.completeExceptionally(t);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                created.completeExceptionally(e);
+            }
+            return created;
+        }
+        
+        // Returns immediately once the theme has been warmed, otherwise waits for it
+        public UIFactory forTheme(String theme) {
+            return prewarm(theme).join();
+        }
+    }
+    
     public static void demonstrate() {
         System.out.println("\n--- Abstract Factory Pattern ---");
         
@@ -53,5 +235,99 @@ public class AbstractFactoryDemo {
         factory = new MacFactory();
         factory.createButton().render();
         factory.createCheckbox().render();
+        
+        // Batched rendering: the whole frame goes out in one channel write
+        RenderBuffer frame = new RenderBuffer(Channels.newChannel(System.out), 64 * 1024);
+        factory.createButton().render(frame);
+        factory.createCheckbox().render(frame);
+        frame.flush();
+        System.out.flush();
+        
+        // Theme cache: warm Mac in the background, then switch without building new widgets
+        ThemeCache themes = new ThemeCache()
+            .register("windows", WindowsFactory::new)
+            .register("mac", MacFactory::new);
+        themes.prewarm("mac");
+        UIFactory cached = themes.forTheme("mac");
+        System.out.println("Cached widgets shared: " + (cached.createButton() == themes.forTheme("mac").createButton()));
+    }
+    
+    // Frame batching and theme-switch timings; run from BenchmarkApp
+    public static void benchmark() {
+        System.out.println("\n--- Abstract Factory Pattern benchmarks ---");
+        compareRendering(100_000);
+        compareThemeSwitch(new ThemeCache()
+            .register("windows", WindowsFactory::new)
+            .register("mac", MacFactory::new), 50_000);
+    }
+    
+    // Rebuilds a UI of the given size on each theme switch and reports bytes allocated
+    private static void compareThemeSwitch(ThemeCache themes, int widgets) {
+        themes.prewarm("windows").join();
+        String[] switches = {"windows", "mac", "windows", "mac"};
+        Button[] buttons = new Button[widgets / 2];
+        Checkbox[] checkboxes = new Checkbox[widgets / 2];
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        
+        long before = threadBean.getCurrentThreadAllocatedBytes();
+        for (String theme : switches) {
+            UIFactory factory = theme.equals("mac") ? new MacFactory() : new WindowsFactory();
+            for (int i = 0; i < buttons.length; i++) {
+                buttons[i] = factory.createButton();
+                checkboxes[i] = factory.createCheckbox();
+            }
+        }
+        long direct = threadBean.getCurrentThreadAllocatedBytes() - before;
+        
+        before = threadBean.getCurrentThreadAllocatedBytes();
+        for (String theme : switches) {
+            UIFactory factory = themes.forTheme(theme);
+            for (int i = 0; i < buttons.length; i++) {
+                buttons[i] = factory.createButton();
+                checkboxes[i] = factory.createCheckbox();
+            }
+        }
+        long cached = threadBean.getCurrentThreadAllocatedBytes() - before;
+        
+        System.out.printf("%d theme switches x %d widgets: direct %d KB allocated, cached %d KB%n",
+                switches.length, widgets, direct / 1024, cached / 1024);
+    }
+    
+    // Per-call println vs one batched frame, both writing to a discarding sink
+    private static void compareRendering(int widgets) {
+        UIFactory[] factories = {new WindowsFactory(), new MacFactory()};
+        Button[] buttons = new Button[widgets / 2];
+        Checkbox[] checkboxes = new Checkbox[widgets / 2];
+        for (int i = 0; i < buttons.length; i++) {
+            buttons[i] = factories[i & 1].createButton();
+            checkboxes[i] = factories[i & 1].createCheckbox();
+        }
+        
+        PrintStream console = System.out;
+        long perCallNanos;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            long start = System.nanoTime();
+            for (int i = 0; i < buttons.length; i++) {
+                buttons[i].render();
+                checkboxes[i].render();
+            }
+            perCallNanos = System.nanoTime() - start;
+        } finally {
+            System.setOut(console);
+        }
+        
+        RenderBuffer frame = new RenderBuffer(Channels.newChannel(OutputStream.nullOutputStream()), 256 * 1024);
+        long start = System.nanoTime();
+        for (int i = 0; i < buttons.length; i++) {
+            buttons[i].render(frame);
+            checkboxes[i].render(frame);
+        }
+        frame.flush();
+        long batchedNanos = System.nanoTime() - start;
+        
+        System.out.printf("Rendering %d widgets: per-call %.1f ms, batched %.1f ms (%d ops/frame, flush %.0f us)%n",
+                widgets, perCallNanos / 1e6, batchedNanos / 1e6, frame.getLastFrameOps(), frame.getMaxFlushMicros());
     }
 }
\ No newline at end of file
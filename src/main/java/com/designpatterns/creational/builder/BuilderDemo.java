@@ -1,5 +1,22 @@
 package com.designpatterns.creational.builder;
 
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Builder Pattern - Constructs complex objects step by step.
  * Simple example: Building a House with optional components.
@@ -18,6 +35,11 @@ public class BuilderDemo {
         public void setRoof(String roof) { this.roof = roof; }
         public void setHasGarage(boolean hasGarage) { this.hasGarage = hasGarage; }
         
+        public String getFoundation() { return foundation; }
+        public String getWalls() { return walls; }
+        public String getRoof() { return roof; }
+        public boolean hasGarage() { return hasGarage; }
+        
         @Override
         public String toString() {
             return "House: " + foundation + ", " + walls + ", " + roof + 
@@ -52,6 +74,442 @@ public class BuilderDemo {
         public House build() { return house; }
     }
     
+    // Shared dictionary that interns material names as small integer codes
+    static final class Materials {
+        private static final Map<String, Short> CODES = new ConcurrentHashMap<>();
+        // Copy-on-write code -> name table: readers do a plain array read, only register() locks
+        private static volatile String[] names = new String[0];
+        
+        private Materials() {}
+        
+        public static short code(String material) {
+            Short code = CODES.get(material);
+            return code != null ? code : register(material);
+        }
+        
+        // Lookup only - returns -1 for a material nobody has built with, without registering it
+        public static short find(String material) {
+            Short code = CODES.get(material);
+            return code != null ? code : -1;
+        }
+        
+        private static synchronized short register(String material) {
+            Short code = CODES.get(material);
+            if (code != null) {
+                return code;
+            }
+            String[] current = names;
+            if (current.length > Short.MAX_VALUE) {
+                throw new IllegalStateException("Too many distinct materials");
+            }
+            String[] grown = Arrays.copyOf(current, current.length + 1);
+            grown[current.length] = material;
+            code = (short) current.length;
+            // Published before the code, so whoever sees the code can decode it
+            names = grown;
+            CODES.put(material, code);
+            return code;
+        }
+        
+        public static String name(short code) { return names[code]; }
+        public static int size() { return names.length; }
+    }
+    
+    // Immutable product - materials are interned through the shared dictionary
+    static final class ImmutableHouse {
+        private final short foundation;
+        private final short walls;
+        private final short roof;
+        private final boolean hasGarage;
+        
+        ImmutableHouse(short foundation, short walls, short roof, boolean hasGarage) {
+            this.foundation = foundation;
+            this.walls = walls;
+            this.roof = roof;
+            this.hasGarage = hasGarage;
+        }
+        
+        public String getFoundation() { return Materials.name(foundation); }
+        public String getWalls() { return Materials.name(walls); }
+        public String getRoof() { return Materials.name(roof); }
+        public boolean hasGarage() { return hasGarage; }
+        
+        @Override
+        public String toString() {
+            return "House: " + getFoundation() + ", " + getWalls() + ", " + getRoof() +
+                   (hasGarage ? ", with garage" : "");
+        }
+    }
+    
+    // Reusable builder - holds only primitive codes, so build() never hands out shared state
+    // and reset() lets one builder produce any number of houses
+    static class ReusableHouseBuilder {
+        private short foundation = -1;
+        private short walls = -1;
+        private short roof = -1;
+        private boolean hasGarage;
+        
+        public ReusableHouseBuilder foundation(String foundation) {
+            this.foundation = Materials.code(foundation);
+            return this;
+        }
+        
+        public ReusableHouseBuilder walls(String walls) {
+            this.walls = Materials.code(walls);
+            return this;
+        }
+        
+        public ReusableHouseBuilder roof(String roof) {
+            this.roof = Materials.code(roof);
+            return this;
+        }
+        
+        public ReusableHouseBuilder garage() {
+            this.hasGarage = true;
+            return this;
+        }
+        
+        public ReusableHouseBuilder reset() {
+            foundation = walls = roof = -1;
+            hasGarage = false;
+            return this;
+        }
+        
+        public ImmutableHouse build() {
+            checkComplete();
+            return new ImmutableHouse(foundation, walls, roof, hasGarage);
+        }
+        
+        // Bulk mode - appends the current house as a row without allocating, then resets
+        public int buildInto(HouseColumns columns) {
+            checkComplete();
+            int row = columns.add(foundation, walls, roof, hasGarage);
+            reset();
+            return row;
+        }
+        
+        private void checkComplete() {
+            if (foundation < 0 || walls < 0 || roof < 0) {
+                throw new IllegalStateException("Foundation, walls and roof are required");
+            }
+        }
+    }
+    
+    // Struct-of-arrays storage for millions of houses: one primitive code array per
+    // material column and a BitSet for garages
+    static class HouseColumns {
+        // Primitive row callback, so iteration allocates nothing per house
+        interface RowVisitor {
+            void visit(int row, short foundation, short walls, short roof, boolean hasGarage);
+        }
+        
+        private short[] foundations;
+        private short[] walls;
+        private short[] roofs;
+        private final BitSet garages = new BitSet();
+        private int size;
+        
+        public HouseColumns(int initialCapacity) {
+            foundations = new short[Math.max(16, initialCapacity)];
+            walls = new short[foundations.length];
+            roofs = new short[foundations.length];
+        }
+        
+        int add(short foundation, short wall, short roof, boolean hasGarage) {
+            if (size == foundations.length) {
+                int capacity = size + (size >> 1);
+                foundations = Arrays.copyOf(foundations, capacity);
+                walls = Arrays.copyOf(walls, capacity);
+                roofs = Arrays.copyOf(roofs, capacity);
+            }
+            foundations[size] = foundation;
+            walls[size] = wall;
+            roofs[size] = roof;
+            if (hasGarage) {
+                garages.set(size);
+            }
+            return size++;
+        }
+        
+        public int size() { return size; }
+        
+        public String foundation(int row) { return Materials.name(foundations[checkRow(row)]); }
+        public String walls(int row) { return Materials.name(walls[checkRow(row)]); }
+        public String roof(int row) { return Materials.name(roofs[checkRow(row)]); }
+        public boolean hasGarage(int row) { return garages.get(checkRow(row)); }
+        
+        public ImmutableHouse get(int row) {
+            checkRow(row);
+            return new ImmutableHouse(foundations[row], walls[row], roofs[row], garages.get(row));
+        }
+        
+        public void forEach(RowVisitor visitor) {
+            for (int row = 0; row < size; row++) {
+                visitor.visit(row, foundations[row], walls[row], roofs[row], garages.get(row));
+            }
+        }
+        
+        // Lookup by roof material - one comparison per row on the code column
+        public int countByRoof(String roof) {
+            short code = Materials.find(roof);
+            if (code < 0) {
+                return 0;
+            }
+            int count = 0;
+            for (int row = 0; row < size; row++) {
+                if (roofs[row] == code) {
+                    count++;
+                }
+            }
+            return count;
+        }
+        
+        public int countWithGarage() { return garages.cardinality(); }
+        
+        public long estimatedBytes() {
+            return 3L * foundations.length * Short.BYTES + garages.size() / 8;
+        }
+        
+        private int checkRow(int row) {
+            if (row < 0 || row >= size) {
+                throw new IndexOutOfBoundsException("Row " + row + " of " + size);
+            }
+            return row;
+        }
+    }
+    
+    // Compact binary batch format for House records:
+    //   header     int magic, int recordCount, short dictionarySize, short reserved  (12 bytes)
+    //   dictionary dictionarySize x (short length, UTF-8 bytes) - materials used in this batch
+    //   records    recordCount x (short foundation, short walls, short roof, byte flags)  (7 bytes)
+    // Material codes index the batch dictionary; -1 encodes a missing material.
+    static final class HouseCodec {
+        static final int MAGIC = 0x48534531; // "HSE1"
+        static final int HEADER_BYTES = 12;
+        static final int RECORD_BYTES = 7;
+        static final byte GARAGE_FLAG = 1;
+        // Upper bound on records per batch, so a corrupt count cannot force a huge allocation
+        static final int MAX_BATCH_RECORDS = 1 << 20;
+        
+        private HouseCodec() {}
+    }
+    
+    // Streams houses to a channel in batches. Records are encoded straight into a reusable
+    // buffer; each batch goes out as one gathering write of header+dictionary and records.
+    static class HouseBatchWriter implements AutoCloseable {
+        private final GatheringByteChannel channel;
+        private final int batchSize;
+        private final ByteBuffer records;
+        private ByteBuffer header = ByteBuffer.allocate(4096);
+        // Global material code -> code in the current batch dictionary (-1 = not yet used)
+        private short[] localCodes = new short[64];
+        private final List<String> dictionary = new ArrayList<>();
+        private int recordCount;
+        private long bytesWritten;
+        
+        public HouseBatchWriter(GatheringByteChannel channel, int batchSize) {
+            if (batchSize < 1 || batchSize > HouseCodec.MAX_BATCH_RECORDS) {
+                throw new IllegalArgumentException("Batch size must be between 1 and " + HouseCodec.MAX_BATCH_RECORDS);
+            }
+            this.channel = channel;
+            this.batchSize = batchSize;
+            this.records = ByteBuffer.allocateDirect(batchSize * HouseCodec.RECORD_BYTES);
+            Arrays.fill(localCodes, (short) -1);
+        }
+        
+        public void write(House house) throws IOException {
+            records.putShort(localCode(house.getFoundation()))
+                   .putShort(localCode(house.getWalls()))
+                   .putShort(localCode(house.getRoof()))
+                   .put(house.hasGarage() ? HouseCodec.GARAGE_FLAG : 0);
+            if (++recordCount == batchSize) {
+                flush();
+            }
+        }
+        
+        private short localCode(String material) {
+            if (material == null) {
+                return -1;
+            }
+            short global = Materials.code(material);
+            if (global >= localCodes.length) {
+                int oldLength = localCodes.length;
+                localCodes = Arrays.copyOf(localCodes, Math.max(global + 1, oldLength * 2));
+                Arrays.fill(localCodes, oldLength, localCodes.length, (short) -1);
+            }
+            short local = localCodes[global];
+            if (local < 0) {
+                local = (short) dictionary.size();
+                dictionary.add(material);
+                localCodes[global] = local;
+            }
+            return local;
+        }
+        
+        public void flush() throws IOException {
+            if (recordCount == 0) {
+                return;
+            }
+            header.clear();
+            header.putInt(HouseCodec.MAGIC).putInt(recordCount).putShort((short) dictionary.size()).putShort((short) 0);
+            for (String material : dictionary) {
+                byte[] utf8 = material.getBytes(StandardCharsets.UTF_8);
+                if (header.remaining() < Short.BYTES + utf8.length) {
+                    ByteBuffer larger = ByteBuffer.allocate(header.capacity() * 2 + utf8.length);
+                    header.flip();
+                    header = larger.put(header);
+                }
+                header.putShort((short) utf8.length).put(utf8);
+            }
+            header.flip();
+            records.flip();
+            ByteBuffer[] batch = {header, records};
+            try {
+                while (records.hasRemaining()) {
+                    bytesWritten += channel.write(batch);
+                }
+            } finally {
+                // A failed write drops the batch, so the next one does not re-emit stale records
+                records.clear();
+                for (String material : dictionary) {
+                    localCodes[Materials.code(material)] = -1;
+                }
+                dictionary.clear();
+                recordCount = 0;
+            }
+        }
+        
+        public long getBytesWritten() { return bytesWritten; }
+        
+        @Override
+        public void close() throws IOException {
+            flush();
+            channel.close();
+        }
+    }
+    
+    // Reads batches written by HouseBatchWriter, either into House objects that share the
+    // batch dictionary strings or straight into columnar storage with no per-record objects
+    static class HouseBatchReader implements AutoCloseable {
+        private final ReadableByteChannel channel;
+        private final ByteBuffer header = ByteBuffer.allocate(HouseCodec.HEADER_BYTES);
+        private ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+        private String[] dictionary = new String[0];
+        private short[] globalCodes = new short[0];
+        
+        public HouseBatchReader(ReadableByteChannel channel) { this.channel = channel; }
+        
+        // Returns the number of records read, or -1 at end of stream
+        public int readBatch(HouseColumns columns) throws IOException {
+            int count = readBatchHeader();
+            for (int i = 0; i < count; i++) {
+                short foundation = buffer.getShort();
+                short walls = buffer.getShort();
+                short roof = buffer.getShort();
+                byte flags = buffer.get();
+                columns.add(globalCode(foundation), globalCode(walls), globalCode(roof),
+                        (flags & HouseCodec.GARAGE_FLAG) != 0);
+            }
+            return count;
+        }
+        
+        public int readBatch(List<House> houses) throws IOException {
+            int count = readBatchHeader();
+            for (int i = 0; i < count; i++) {
+                House house = new House();
+                house.setFoundation(material(buffer.getShort()));
+                house.setWalls(material(buffer.getShort()));
+                house.setRoof(material(buffer.getShort()));
+                house.setHasGarage((buffer.get() & HouseCodec.GARAGE_FLAG) != 0);
+                houses.add(house);
+            }
+            return count;
+        }
+        
+        private String material(short code) throws IOException { return code == -1 ? null : dictionary[checked(code)]; }
+        
+        private short globalCode(short code) throws IOException {
+            if (code == -1) {
+                throw new IllegalStateException("Columnar storage requires every material to be set");
+            }
+            return globalCodes[checked(code)];
+        }
+        
+        private short checked(short code) throws IOException {
+            if (code < 0 || code >= dictionary.length) {
+                throw corrupt();
+            }
+            return code;
+        }
+        
+        private static IOException corrupt() { return new IOException("Corrupt house batch"); }
+        
+        // Reads header and dictionary; leaves the batch records in the buffer, ready to decode.
+        // Every size is checked before it is used, so bad input fails with IOException.
+        private int readBatchHeader() throws IOException {
+            header.clear();
+            if (!readOrEof(header)) {
+                return -1;
+            }
+            header.flip();
+            if (header.getInt() != HouseCodec.MAGIC) {
+                throw new IOException("Not a house batch stream");
+            }
+            int count = header.getInt();
+            int dictionarySize = header.getShort();
+            header.getShort();
+            // Each record names at most three materials
+            if (count < 1 || count > HouseCodec.MAX_BATCH_RECORDS || dictionarySize < 0 || dictionarySize > 3 * count) {
+                throw corrupt();
+            }
+            
+            dictionary = new String[dictionarySize];
+            globalCodes = new short[dictionarySize];
+            ByteBuffer length = ByteBuffer.allocate(Short.BYTES);
+            for (int i = 0; i < dictionarySize; i++) {
+                length.clear();
+                readFully(length);
+                int utf8Length = length.flip().getShort();
+                if (utf8Length < 0) {
+                    throw corrupt();
+                }
+                byte[] utf8 = new byte[utf8Length];
+                readFully(ByteBuffer.wrap(utf8));
+                dictionary[i] = new String(utf8, StandardCharsets.UTF_8);
+                globalCodes[i] = Materials.code(dictionary[i]);
+            }
+            
+            int recordBytes = count * HouseCodec.RECORD_BYTES;
+            if (buffer.capacity() < recordBytes) {
+                buffer = ByteBuffer.allocateDirect(recordBytes);
+            }
+            buffer.clear().limit(recordBytes);
+            readFully(buffer);
+            buffer.flip();
+            return count;
+        }
+        
+        // False only on a clean end of stream before the first byte
+        private boolean readOrEof(ByteBuffer target) throws IOException {
+            if (channel.read(target) < 0) {
+                return false;
+            }
+            readFully(target);
+            return true;
+        }
+        
+        private void readFully(ByteBuffer target) throws IOException {
+            while (target.hasRemaining()) {
+                if (channel.read(target) < 0) {
+                    throw new EOFException("Truncated house batch");
+                }
+            }
+        }
+        
+        @Override
+        public void close() throws IOException { channel.close(); }
+    }
+    
     public static void demonstrate() {
         System.out.println("\n--- Builder Pattern ---");
         
@@ -61,7 +519,143 @@ public class BuilderDemo {
             .roof("Tile")
             .garage()
             .build();
-            
+        
         System.out.println(house);
+        
+        // One builder, many immutable houses
+        ReusableHouseBuilder builder = new ReusableHouseBuilder();
+        ImmutableHouse first = builder.foundation("Concrete").walls("Brick").roof("Tile").garage().build();
+        ImmutableHouse second = builder.reset().foundation("Stone").walls("Wood").roof("Slate").build();
+        System.out.println(first + " | " + second);
+    }
+    
+    // Bulk building and encoding timings; run from BenchmarkApp
+    public static void benchmark() {
+        System.out.println("\n--- Builder Pattern benchmarks ---");
+        compareBulkBuilding(2_000_000);
+        compareEncodings(1_000_000);
+    }
+    
+    // Round-trips houses through a temp file and compares size and speed with toString()
+    private static void compareEncodings(int count) {
+        String[] foundations = {"Concrete", "Stone", "Brick"};
+        String[] walls = {"Brick", "Wood", "Glass", "Stone"};
+        String[] roofs = {"Tile", "Slate", "Metal"};
+        List<House> houses = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            HouseBuilder builder = new HouseBuilder()
+                .foundation(foundations[i % 3])
+                .walls(walls[i % 4])
+                .roof(roofs[i % 3]);
+            if (i % 5 == 0) {
+                builder.garage();
+            }
+            houses.add(builder.build());
+        }
+        
+        long start = System.nanoTime();
+        long textBytes = 0;
+        for (House house : houses) {
+            textBytes += house.toString().getBytes(StandardCharsets.UTF_8).length + 1;
+        }
+        long textNanos = System.nanoTime() - start;
+        
+        Path file = null;
+        try {
+            file = Files.createTempFile("houses", ".bin");
+            start = System.nanoTime();
+            long binaryBytes;
+            try (HouseBatchWriter writer = new HouseBatchWriter(FileChannel.open(file, StandardOpenOption.WRITE), 8192)) {
+                for (House house : houses) {
+                    writer.write(house);
+                }
+                writer.flush();
+                binaryBytes = writer.getBytesWritten();
+            }
+            long encodeNanos = System.nanoTime() - start;
+            
+            start = System.nanoTime();
+            HouseColumns columns = new HouseColumns(count);
+            try (HouseBatchReader reader = new HouseBatchReader(FileChannel.open(file, StandardOpenOption.READ))) {
+                while (reader.readBatch(columns) >= 0) {
+                    // keep reading until end of stream
+                }
+            }
+            long decodeNanos = System.nanoTime() - start;
+            
+            List<House> decoded = new ArrayList<>(count);
+            try (HouseBatchReader reader = new HouseBatchReader(FileChannel.open(file, StandardOpenOption.READ))) {
+                while (reader.readBatch(decoded) >= 0) {
+                    // keep reading until end of stream
+                }
+            }
+            boolean roundTrip = columns.size() == count && decoded.size() == count;
+            for (int i = 0; roundTrip && i < count; i++) {
+                String expected = houses.get(i).toString();
+                roundTrip = expected.equals(decoded.get(i).toString()) && expected.equals(columns.get(i).toString());
+            }
+            
+            System.out.printf("%d houses: text %.1f MB in %d ms, binary %.1f MB encoded in %d ms, decoded in %d ms, round trip ok=%b%n",
+                    count, textBytes / 1e6, textNanos / 1_000_000, binaryBytes / 1e6,
+                    encodeNanos / 1_000_000, decodeNanos / 1_000_000, roundTrip);
+        } catch (IOException e) {
+            System.out.println("Binary round trip failed: " + e.getMessage());
+        } finally {
+            if (file != null) {
+                try { Files.deleteIfExists(file); } catch (IOException e) {}
+            }
+        }
+    }
+    
+    // Heap footprint and build time: House objects vs columnar storage
+    private static void compareBulkBuilding(int count) {
+        String[] foundations = {"Concrete", "Stone", "Brick"};
+        String[] walls = {"Brick", "Wood", "Glass", "Stone"};
+        String[] roofs = {"Tile", "Slate", "Metal"};
+        
+        long baseline = usedHeap();
+        long start = System.nanoTime();
+        House[] houses = new House[count];
+        for (int i = 0; i < count; i++) {
+            HouseBuilder builder = new HouseBuilder()
+                .foundation(foundations[i % 3])
+                .walls(walls[i % 4])
+                .roof(roofs[i % 3]);
+            if ((i & 1) == 0) {
+                builder.garage();
+            }
+            houses[i] = builder.build();
+        }
+        long objectNanos = System.nanoTime() - start;
+        long objectBytes = usedHeap() - baseline;
+        houses = null;
+        
+        baseline = usedHeap();
+        start = System.nanoTime();
+        ReusableHouseBuilder builder = new ReusableHouseBuilder();
+        HouseColumns columns = new HouseColumns(count);
+        for (int i = 0; i < count; i++) {
+            builder.foundation(foundations[i % 3]).walls(walls[i % 4]).roof(roofs[i % 3]);
+            if ((i & 1) == 0) {
+                builder.garage();
+            }
+            builder.buildInto(columns);
+        }
+        long columnNanos = System.nanoTime() - start;
+        long columnBytes = usedHeap() - baseline;
+        
+        System.out.printf("%d houses: objects %d ms / %.1f bytes each, columns %d ms / %.1f bytes each%n",
+                count, objectNanos / 1_000_000, (double) objectBytes / count,
+                columnNanos / 1_000_000, (double) columnBytes / count);
+        System.out.println("Columnar lookup: " + columns.countByRoof("Slate") + " slate roofs, "
+                + columns.countWithGarage() + " with garage, row 5 = " + columns.get(5));
+    }
+    
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
     }
 }
\ No newline at end of file
@@ -1,5 +1,37 @@
 package com.designpatterns.creational.factory;
 
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
 /**
  * Factory Method Pattern - Creates objects without specifying exact classes.
  * Delegates object creation to subclasses, promoting loose coupling.
@@ -30,6 +62,101 @@ public class FactoryMethodDemo {
             Document doc = createDocument(); // Delegates to subclass
             doc.open(); // Works with abstract interface
         }
+        
+        // Opens a file on disk as a paged document without reading it into the heap
+        public PagedDocument openDocument(Path file, int pageSize, long residentBudgetBytes) throws IOException {
+            // Reject bad limits before anything is opened or printed
+            PagedDocument.checkLimits(pageSize, residentBudgetBytes);
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+            try {
+                Document doc = createDocument();
+                doc.open();
+                return new PagedDocument(doc, channel, pageSize, residentBudgetBytes);
+            } catch (IOException | RuntimeException | Error e) {
+                channel.close();
+                throw e;
+            }
+        }
+    }
+    
+    // Handle to a memory-mapped document. The file is mapped lazily in fixed-size regions
+    // when a page inside them is first accessed; mapped regions are kept in an LRU list
+    // whose total size never exceeds the resident budget.
+    static class PagedDocument implements AutoCloseable {
+        private static final long REGION_SIZE = 64L * 1024 * 1024;
+        
+        private final Document document;
+        private final FileChannel channel;
+        private final long fileSize;
+        private final int pageSize;
+        private final long residentBudgetBytes;
+        private final LinkedHashMap<Long, MappedByteBuffer> regions = new LinkedHashMap<>(16, 0.75f, true);
+        private long residentBytes;
+        private long regionsMapped;
+        
+        PagedDocument(Document document, FileChannel channel, int pageSize, long residentBudgetBytes) throws IOException {
+            checkLimits(pageSize, residentBudgetBytes);
+            this.document = document;
+            this.channel = channel;
+            this.fileSize = channel.size();
+            this.pageSize = pageSize;
+            this.residentBudgetBytes = residentBudgetBytes;
+        }
+        
+        static void checkLimits(int pageSize, long residentBudgetBytes) {
+            if (pageSize < 1 || REGION_SIZE % pageSize != 0) {
+                throw new IllegalArgumentException("Page size must divide the region size: " + pageSize);
+            }
+            if (residentBudgetBytes < REGION_SIZE) {
+                throw new IllegalArgumentException("Resident budget must hold at least one region");
+            }
+        }
+        
+        public Document getDocument() { return document; }
+        public long getFileSize() { return fileSize; }
+        
+        public long getPageCount() { return (fileSize + pageSize - 1) / pageSize; }
+        
+        // Read-only view of one page; only the region containing it is mapped
+        public synchronized ByteBuffer page(long index) throws IOException {
+            if (index < 0 || index >= getPageCount()) {
+                throw new IndexOutOfBoundsException("Page " + index + " of " + getPageCount());
+            }
+            long offset = index * pageSize;
+            long regionStart = offset - offset % REGION_SIZE;
+            MappedByteBuffer region = regions.get(regionStart);
+            if (region == null) {
+                region = mapRegion(regionStart);
+            }
+            int start = (int) (offset - regionStart);
+            int length = (int) Math.min(pageSize, fileSize - offset);
+            return region.slice(start, length).asReadOnlyBuffer();
+        }
+        
+        private MappedByteBuffer mapRegion(long regionStart) throws IOException {
+            long length = Math.min(REGION_SIZE, fileSize - regionStart);
+            // Evict least recently used regions first; the mapping is released once unreachable
+            Iterator<Map.Entry<Long, MappedByteBuffer>> eldest = regions.entrySet().iterator();
+            while (residentBytes + length > residentBudgetBytes && eldest.hasNext()) {
+                residentBytes -= eldest.next().getValue().capacity();
+                eldest.remove();
+            }
+            MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, regionStart, length);
+            regions.put(regionStart, region);
+            residentBytes += length;
+            regionsMapped++;
+            return region;
+        }
+        
+        public synchronized long getResidentBytes() { return residentBytes; }
+        public synchronized long getRegionsMapped() { return regionsMapped; }
+        
+        @Override
+        public synchronized void close() throws IOException {
+            regions.clear();
+            residentBytes = 0;
+            channel.close();
+        }
     }
     
     // Concrete Creators - implement factory method to create specific products
@@ -43,6 +170,222 @@ public class FactoryMethodDemo {
         public Document createDocument() { return new PDFDocument(); }
     }
     
+    // Registry-based creator - maps type keys (names, file extensions) to constructors.
+    // Each constructor is linked once at registration into a Supplier generated by
+    // LambdaMetafactory, so creation is a HashMap lookup plus a plain interface call.
+    static class DocumentRegistry {
+        private static final MethodType SUPPLIER_TYPE = MethodType.methodType(Supplier.class);
+        private static final MethodType GET_TYPE = MethodType.methodType(Object.class);
+        
+        private final MethodHandles.Lookup lookup;
+        private final Map<String, Supplier<? extends Document>> constructors = new HashMap<>();
+        
+        public DocumentRegistry(MethodHandles.Lookup lookup) { this.lookup = lookup; }
+        
+        // Registers a Document type with a public or package-visible no-arg constructor
+        public DocumentRegistry register(Class<? extends Document> type, String... keys) {
+            Supplier<? extends Document> supplier = linkConstructor(type);
+            for (String key : keys) {
+                constructors.put(key.toLowerCase(Locale.ROOT), supplier);
+            }
+            return this;
+        }
+        
+        public Document create(String key) {
+            Supplier<? extends Document> supplier = constructors.get(key.toLowerCase(Locale.ROOT));
+            if (supplier == null) {
+                throw new IllegalArgumentException("No document type registered for: " + key);
+            }
+            return supplier.get();
+        }
+        
+        // Resolves the type from the file extension, e.g. "report.pdf" -> "pdf"
+        public Document createForFile(String fileName) {
+            int dot = fileName.lastIndexOf('.');
+            if (dot < 0 || dot == fileName.length() - 1) {
+                throw new IllegalArgumentException("File has no extension: " + fileName);
+            }
+            return create(fileName.substring(dot + 1));
+        }
+        
+        @SuppressWarnings("unchecked")
+        private Supplier<? extends Document> linkConstructor(Class<? extends Document> type) {
+            try {
+                MethodHandle constructor = lookup.findConstructor(type, MethodType.methodType(void.class));
+                CallSite site = LambdaMetafactory.metafactory(lookup, "get", SUPPLIER_TYPE,
+                        GET_TYPE, constructor, MethodType.methodType(type));
+                return (Supplier<? extends Document>) site.getTarget().invoke();
+            } catch (Throwable e) {
+                throw new IllegalArgumentException("Cannot link constructor of " + type.getName(), e);
+            }
+        }
+    }
+    
+    // Creator backed by the registry - one class serves every registered type
+    static class RegistryDocumentFactory extends DocumentFactory {
+        private final DocumentRegistry registry;
+        private final String key;
+        
+        public RegistryDocumentFactory(DocumentRegistry registry, String key) {
+            this.registry = registry;
+            this.key = key;
+        }
+        
+        public Document createDocument() { return registry.create(key); }
+    }
+    
+    // Opt-in recycling wrapper around any creator. Released documents are reset and kept
+    // in a small per-thread cache first, spilling into a bounded shared pool; only when
+    // both are empty does the wrapped factory allocate a new document.
+    static class PooledDocumentFactory extends DocumentFactory {
+        private static final Cleaner LEAK_CLEANER = Cleaner.create();
+        
+        private final DocumentFactory delegate;
+        private final Consumer<? super Document> resetHook;
+        private final int perThreadCapacity;
+        private final int sharedCapacity;
+        private final ThreadLocal<ArrayDeque<PooledDocument>> localCache;
+        private final ConcurrentLinkedQueue<PooledDocument> shared = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger sharedSize = new AtomicInteger();
+        private final LongAdder created = new LongAdder();
+        private final LongAdder recycled = new LongAdder();
+        private final LongAdder leaked = new LongAdder();
+        
+        public PooledDocumentFactory(DocumentFactory delegate, Consumer<? super Document> resetHook,
+                                     int perThreadCapacity, int sharedCapacity) {
+            this.delegate = delegate;
+            this.resetHook = resetHook;
+            this.perThreadCapacity = perThreadCapacity;
+            this.sharedCapacity = sharedCapacity;
+            this.localCache = ThreadLocal.withInitial(() -> new ArrayDeque<>(perThreadCapacity));
+        }
+        
+        // Pooled creation - callers must hand the document back through release()
+        public Document createDocument() {
+            PooledDocument doc = localCache.get().pollLast();
+            if (doc == null) {
+                doc = shared.poll();
+                if (doc != null) {
+                    sharedSize.decrementAndGet();
+                } else {
+                    created.increment();
+                    return new PooledDocument(this, delegate.createDocument());
+                }
+            }
+            doc.state.set(PooledDocument.BORROWED);
+            recycled.increment();
+            return doc;
+        }
+        
+        // Rejects documents this pool did not hand out and documents released twice. A reset
+        // hook that throws retires the document instead of returning it to the pool.
+        public void release(Document document) {
+            if (!(document instanceof PooledDocument) || ((PooledDocument) document).owner != this) {
+                throw new IllegalStateException("Document is not borrowed from this pool: " + document);
+            }
+            PooledDocument doc = (PooledDocument) document;
+            if (!doc.state.compareAndSet(PooledDocument.BORROWED, PooledDocument.IN_POOL)) {
+                throw new IllegalStateException("Document is not borrowed from this pool: " + document);
+            }
+            try {
+                resetHook.accept(doc.target);
+            } catch (RuntimeException | Error e) {
+                doc.state.set(PooledDocument.RETIRED);
+                throw e;
+            }
+            ArrayDeque<PooledDocument> local = localCache.get();
+            if (local.size() < perThreadCapacity) {
+                local.addLast(doc);
+            } else if (sharedSize.incrementAndGet() <= sharedCapacity) {
+                shared.offer(doc);
+            } else {
+                // Both tiers full - let the garbage collector have it
+                sharedSize.decrementAndGet();
+                doc.state.set(PooledDocument.RETIRED);
+            }
+        }
+        
+        @Override
+        public void openDocument() {
+            Document doc = createDocument();
+            try {
+                doc.open();
+            } finally {
+                release(doc);
+            }
+        }
+        
+        // A paged document keeps its Document for as long as it is open, so it gets a fresh
+        // one from the delegate instead of taking one out of the pool
+        @Override
+        public PagedDocument openDocument(Path file, int pageSize, long residentBudgetBytes) throws IOException {
+            return delegate.openDocument(file, pageSize, residentBudgetBytes);
+        }
+        
+        // Single-use handle - closing it twice releases the document only once
+        public Lease lease() {
+            return new Lease(this, createDocument());
+        }
+        
+        public long getCreatedCount() { return created.sum(); }
+        public long getRecycledCount() { return recycled.sum(); }
+        public long getLeakCount() { return leaked.sum(); }
+        
+        // Pool-owned handle around a created document. Ownership is a per-instance state flag,
+        // so release checks are identity-based and need no shared map. The leak check is
+        // registered once per document: if a borrowed one becomes unreachable, it was never
+        // returned, whether it came from createDocument() or lease().
+        static final class PooledDocument implements Document {
+            static final int BORROWED = 0;
+            static final int IN_POOL = 1;
+            static final int RETIRED = 2;
+            
+            private final PooledDocumentFactory owner;
+            private final Document target;
+            private final AtomicInteger state = new AtomicInteger(BORROWED);
+            
+            private PooledDocument(PooledDocumentFactory owner, Document target) {
+                this.owner = owner;
+                this.target = target;
+                // The cleanup action must not capture the document itself, or it never becomes unreachable
+                AtomicInteger state = this.state;
+                LongAdder leaked = owner.leaked;
+                String type = target.getClass().getSimpleName();
+                LEAK_CLEANER.register(this, () -> {
+                    if (state.get() == BORROWED) {
+                        leaked.increment();
+                        System.err.println("LEAK: pooled " + type + " was never returned");
+                    }
+                });
+            }
+            
+            public void open() { target.open(); }
+            
+            @Override
+            public String toString() { return "Pooled " + target; }
+        }
+        
+        static final class Lease implements AutoCloseable {
+            private final PooledDocumentFactory pool;
+            private final Document document;
+            private final AtomicBoolean returned = new AtomicBoolean();
+            
+            private Lease(PooledDocumentFactory pool, Document document) {
+                this.pool = pool;
+                this.document = document;
+            }
+            
+            public Document get() { return document; }
+            
+            @Override
+            public void close() {
+                if (returned.compareAndSet(false, true)) {
+                    pool.release(document);
+                }
+            }
+        }
+    }
+    
     public static void demonstrate() {
         System.out.println("\n--- Factory Method Pattern ---");
         
@@ -53,7 +396,175 @@ public class FactoryMethodDemo {
         DocumentFactory pdfFactory = new PDFFactory();
         pdfFactory.openDocument(); // Creates PDFDocument internally
         
+        // Registry: new types are registered once, no new creator subclass needed
+        DocumentRegistry registry = new DocumentRegistry(MethodHandles.lookup())
+            .register(WordDocument.class, "word", "doc", "docx")
+            .register(PDFDocument.class, "pdf");
+        registry.createForFile("report.docx").open();
+        new RegistryDocumentFactory(registry, "pdf").openDocument();
+        
+        // Pooling wrapper: the second open reuses the first document
+        PooledDocumentFactory pooled = new PooledDocumentFactory(new WordFactory(), doc -> { }, 16, 256);
+        pooled.openDocument();
+        try (PooledDocumentFactory.Lease lease = pooled.lease()) {
+            lease.get().open();
+        }
+        System.out.println("Pooled factory created " + pooled.getCreatedCount()
+                + " document(s), recycled " + pooled.getRecycledCount());
+        
         // Key benefit: Easy to add new document types without changing client code
         System.out.println("Factory method promotes extensibility and loose coupling");
     }
+    
+    // Creation, allocation and large-file timings; run from BenchmarkApp since the
+    // large-file check writes a 3 GB sparse file
+    public static void benchmark() {
+        System.out.println("\n--- Factory Method Pattern benchmarks ---");
+        compareCreationStrategies(new DocumentRegistry(MethodHandles.lookup())
+            .register(WordDocument.class, "word", "doc", "docx")
+            .register(PDFDocument.class, "pdf"));
+        compareAllocation();
+        openLargeFile();
+    }
+    
+    // Rough timing of subclass dispatch, reflective construction and the registry
+    private static void compareCreationStrategies(DocumentRegistry registry) {
+        int iterations = 2_000_000;
+        String[] keys = {"word", "pdf"};
+        DocumentFactory[] factories = {new WordFactory(), new PDFFactory()};
+        Map<String, Class<? extends Document>> classes = new HashMap<>();
+        classes.put("word", WordDocument.class);
+        classes.put("pdf", PDFDocument.class);
+        
+        int sink = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += factories[i & 1].createDocument() instanceof WordDocument ? 1 : 0;
+        }
+        long subclassNanos = System.nanoTime() - start;
+        
+        start = System.nanoTime();
+        try {
+            for (int i = 0; i < iterations; i++) {
+                sink += classes.get(keys[i & 1]).getDeclaredConstructor().newInstance() instanceof WordDocument ? 1 : 0;
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+        long reflectionNanos = System.nanoTime() - start;
+        
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += registry.create(keys[i & 1]) instanceof WordDocument ? 1 : 0;
+        }
+        long registryNanos = System.nanoTime() - start;
+        
+        System.out.printf("Creation cost: subclass %.1f ns, reflection %.1f ns, registry %.1f ns (checksum %d)%n",
+                (double) subclassNanos / iterations, (double) reflectionNanos / iterations,
+                (double) registryNanos / iterations, sink);
+    }
+    
+    // Document with a working buffer, standing in for real per-document state
+    static class ScratchDocument implements Document {
+        private final byte[] buffer = new byte[8192];
+        private int length;
+        
+        public void open() {
+            length = 0;
+            buffer[length++] = 1;
+        }
+        
+        void reset() { length = 0; }
+    }
+    
+    // GC count and bytes allocated by worker threads for plain vs pooled creation
+    private static void compareAllocation() {
+        DocumentFactory plain = new DocumentFactory() {
+            public Document createDocument() { return new ScratchDocument(); }
+        };
+        PooledDocumentFactory pooled = new PooledDocumentFactory(plain,
+                doc -> ((ScratchDocument) doc).reset(), 8, 64);
+        
+        System.out.println("Allocation under 4 threads x 500k opens:");
+        runAllocationLoad("plain ", plain::createDocument, doc -> { });
+        runAllocationLoad("pooled", pooled::createDocument, pooled::release);
+    }
+    
+    private static void runAllocationLoad(String label, Supplier<Document> acquire, Consumer<Document> release) {
+        int threads = 4;
+        int opens = 500_000;
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long gcBefore = totalGcCount();
+        long start = System.nanoTime();
+        
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long allocated = 0;
+        try {
+            Future<?>[] workers = new Future<?>[threads];
+            for (int t = 0; t < threads; t++) {
+                workers[t] = executor.submit(() -> {
+                    long before = threadBean.getCurrentThreadAllocatedBytes();
+                    for (int i = 0; i < opens; i++) {
+                        Document doc = acquire.get();
+                        doc.open();
+                        release.accept(doc);
+                    }
+                    return threadBean.getCurrentThreadAllocatedBytes() - before;
+                });
+            }
+            for (Future<?> worker : workers) {
+                allocated += (Long) worker.get();
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        } finally {
+            executor.shutdown();
+        }
+        
+        System.out.printf("  %s: %6.1f MB allocated, %d GCs, %d ms%n", label, allocated / 1e6,
+                totalGcCount() - gcBefore, (System.nanoTime() - start) / 1_000_000);
+    }
+    
+    private static long totalGcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+    
+    // Generates a sparse multi-GB file and reads a few pages at random from it
+    private static void openLargeFile() {
+        long size = 3L * 1024 * 1024 * 1024;
+        int pageSize = 64 * 1024;
+        Path file = null;
+        try {
+            file = Files.createTempFile("paged-document", ".pdf");
+            try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+                raf.setLength(size);
+                // Tag the first byte of a few pages so reads can be checked
+                for (long page : new long[] {0, 20_000, 49_151}) {
+                    raf.seek(page * pageSize);
+                    raf.write((int) (page % 251) + 1);
+                }
+            }
+            
+            try (PagedDocument doc = new PDFFactory().openDocument(file, pageSize, 128L * 1024 * 1024)) {
+                boolean tagsMatch = true;
+                for (long page : new long[] {0, 20_000, 49_151}) {
+                    tagsMatch &= doc.page(page).get(0) == (byte) (page % 251 + 1);
+                }
+                System.out.printf("Paged %d MB file: %d pages, tags match=%b, %d regions mapped, %d MB resident%n",
+                        doc.getFileSize() >> 20, doc.getPageCount(), tagsMatch,
+                        doc.getRegionsMapped(), doc.getResidentBytes() >> 20);
+            }
+        } catch (IOException e) {
+            System.out.println("Could not create sparse test file: " + e.getMessage());
+        } finally {
+            if (file != null) {
+                try { Files.deleteIfExists(file); } catch (IOException e) {}
+            }
+        }
+    }
 }
\ No newline at end of file
@@ -1,5 +1,22 @@
 package com.designpatterns.creational.prototype;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Prototype Pattern - Creates objects by cloning existing instances.
  * Simple example: Cloning shapes with different properties.
@@ -12,27 +29,277 @@ public class PrototypeDemo {
         void draw();
     }
     
-    // Concrete prototype
+    // Concrete prototype - intrinsic fields live in an immutable state object that clones
+    // share; a setter gives only the modified circle its own copy (copy-on-write)
     static class Circle implements Shape {
-        private int radius;
-        private String color;
+        private static final class State {
+            final int radius;
+            final String color;
+            
+            State(int radius, String color) {
+                this.radius = radius;
+                this.color = color;
+            }
+        }
+        
+        private State state;
         
         public Circle(int radius, String color) {
-            this.radius = radius;
-            this.color = color;
+            this.state = new State(radius, color);
+        }
+        
+        private Circle(State state) {
+            this.state = state;
         }
         
         @Override
         public Shape clone() {
-            return new Circle(this.radius, this.color);
+            return new Circle(state);
         }
         
         @Override
         public void draw() {
-            System.out.println("Circle: radius=" + radius + ", color=" + color);
+            System.out.println("Circle: radius=" + state.radius + ", color=" + state.color);
+        }
+        
+        public int getRadius() { return state.radius; }
+        public String getColor() { return state.color; }
+        
+        public void setColor(String color) { this.state = new State(state.radius, color); }
+        
+        boolean sharesStateWith(Circle other) { return state == other.state; }
+    }
+    
+    // Thread-safe registry of named templates with bulk cloning
+    static class PrototypeRegistry {
+        private final Map<String, Shape> templates = new ConcurrentHashMap<>();
+        
+        public void register(String name, Shape prototype) {
+            templates.put(name, prototype);
+        }
+        
+        public Shape clone(String name) {
+            return template(name).clone();
+        }
+        
+        // Fills a pre-sized array with clones of one template
+        public Shape[] cloneN(String name, int count) {
+            Shape[] clones = new Shape[count];
+            cloneInto(name, clones, 0, count);
+            return clones;
+        }
+        
+        // Bulk clone into a caller-owned array, so repeated batches can reuse it
+        public void cloneInto(String name, Shape[] target, int offset, int count) {
+            Shape prototype = template(name);
+            for (int i = offset, end = offset + count; i < end; i++) {
+                target[i] = prototype.clone();
+            }
+        }
+        
+        private Shape template(String name) {
+            Shape prototype = templates.get(name);
+            if (prototype == null) {
+                throw new IllegalArgumentException("No prototype registered as: " + name);
+            }
+            return prototype;
+        }
+    }
+    
+    // Shared color palette - each distinct color name is stored once and referenced by index
+    static class ColorPalette {
+        private final Map<String, Short> indexes = new ConcurrentHashMap<>();
+        private final List<String> colors = new ArrayList<>();
+        
+        public short indexOf(String color) {
+            Short index = indexes.get(color);
+            return index != null ? index : add(color);
+        }
+        
+        private synchronized short add(String color) {
+            Short index = indexes.get(color);
+            if (index != null) {
+                return index;
+            }
+            if (colors.size() > Short.MAX_VALUE) {
+                throw new IllegalStateException("Palette is full");
+            }
+            colors.add(color);
+            index = (short) (colors.size() - 1);
+            indexes.put(color, index);
+            return index;
+        }
+        
+        public synchronized String color(short index) { return colors.get(index); }
+        
+        // Colors in index order
+        public synchronized List<String> colors() { return new ArrayList<>(colors); }
+    }
+    
+    // Off-heap store of circles as fixed-width records (int radius, short palette index,
+    // short padding). Prototypes are cloned straight into slots and read back by index,
+    // so millions of circles cost 8 bytes each and no Java objects.
+    static class CircleStore {
+        static final int RECORD_BYTES = 8;
+        // Mapped file layout: header (magic, capacity, synced size), records, then the palette
+        private static final int MAGIC = 0x43495243;
+        private static final int HEADER_BYTES = 16;
+        
+        // Primitive callback so iteration creates no wrapper objects
+        interface CircleVisitor {
+            void visit(int index, int radius, short paletteIndex);
+        }
+        
+        private final ByteBuffer records;
+        private final ColorPalette palette;
+        private final int capacity;
+        private final Path file; // null unless mapped
+        private final MappedByteBuffer mapping;
+        private int size;
+        
+        private CircleStore(ByteBuffer records, ColorPalette palette, int capacity,
+                Path file, MappedByteBuffer mapping, int size) {
+            this.records = records;
+            this.palette = palette;
+            this.capacity = capacity;
+            this.file = file;
+            this.mapping = mapping;
+            this.size = size;
+        }
+        
+        public static CircleStore allocate(int capacity, ColorPalette palette) {
+            return new CircleStore(ByteBuffer.allocateDirect(checkedBytes(capacity)), palette, capacity, null, null, 0);
+        }
+        
+        // Memory-mapped variant with its own palette. Records are written straight into the
+        // file; sync() saves the size and palette, and reopening restores the store as of then.
+        public static CircleStore mapped(Path file, int capacity) throws IOException {
+            int recordBytes = checkedBytes(capacity);
+            long palettePosition = HEADER_BYTES + (long) recordBytes;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                boolean fresh = channel.size() == 0;
+                if (!fresh && channel.size() < palettePosition) {
+                    throw new IOException("Not a circle store of capacity " + capacity + ": " + file);
+                }
+                MappedByteBuffer mapping = channel.map(FileChannel.MapMode.READ_WRITE, 0, palettePosition);
+                ColorPalette palette = new ColorPalette();
+                int size = 0;
+                if (fresh) {
+                    mapping.putInt(0, MAGIC).putInt(4, capacity).putInt(8, 0);
+                } else {
+                    size = mapping.getInt(8);
+                    if (mapping.getInt(0) != MAGIC || mapping.getInt(4) != capacity || size < 0 || size > capacity) {
+                        throw new IOException("Not a circle store of capacity " + capacity + ": " + file);
+                    }
+                    readPalette(channel, palettePosition, palette);
+                }
+                return new CircleStore(mapping.slice(HEADER_BYTES, recordBytes), palette, capacity, file, mapping, size);
+            }
+        }
+        
+        private static void readPalette(FileChannel channel, long position, ColorPalette palette) throws IOException {
+            if (channel.size() == position) {
+                return; // never synced
+            }
+            DataInputStream in = new DataInputStream(new BufferedInputStream(
+                    Channels.newInputStream(channel.position(position))));
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                palette.indexOf(in.readUTF());
+            }
+        }
+        
+        // Writes the palette behind the records, flushes the records, then commits the size.
+        // The palette only grows, so a crash between the steps still leaves a readable store.
+        public void sync() throws IOException {
+            if (file == null) {
+                throw new IllegalStateException("Only mapped stores can be synced");
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                List<String> colors = palette.colors();
+                out.writeInt(colors.size());
+                for (String color : colors) {
+                    out.writeUTF(color);
+                }
+            }
+            long palettePosition = HEADER_BYTES + (long) capacity * RECORD_BYTES;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                ByteBuffer trailer = ByteBuffer.wrap(bytes.toByteArray());
+                while (trailer.hasRemaining()) {
+                    channel.write(trailer, palettePosition + trailer.position());
+                }
+                channel.truncate(palettePosition + bytes.size());
+                channel.force(false);
+            }
+            mapping.force();
+            mapping.putInt(8, size);
+            mapping.force(0, HEADER_BYTES);
+        }
+        
+        private static int checkedBytes(int capacity) {
+            if (capacity < 1 || capacity > Integer.MAX_VALUE / RECORD_BYTES) {
+                throw new IllegalArgumentException("Capacity out of range: " + capacity);
+            }
+            return capacity * RECORD_BYTES;
         }
         
-        public void setColor(String color) { this.color = color; }
+        // "Clones" the prototype into the next free slot and returns its index
+        public int cloneFrom(Circle prototype) {
+            if (size == capacity) {
+                throw new IllegalStateException("Store is full: " + capacity);
+            }
+            int index = size++;
+            write(index, prototype.getRadius(), palette.indexOf(prototype.getColor()));
+            return index;
+        }
+        
+        // Fills count slots from one prototype, resolving its palette index once
+        public void cloneFrom(Circle prototype, int count) {
+            if (count > capacity - size) {
+                throw new IllegalStateException("Not enough room for " + count + " circles");
+            }
+            int radius = prototype.getRadius();
+            short color = palette.indexOf(prototype.getColor());
+            for (int i = 0; i < count; i++) {
+                write(size++, radius, color);
+            }
+        }
+        
+        private void write(int index, int radius, short color) {
+            int offset = index * RECORD_BYTES;
+            records.putInt(offset, radius);
+            records.putShort(offset + Integer.BYTES, color);
+        }
+        
+        public int size() { return size; }
+        
+        public int radius(int index) { return records.getInt(offset(index)); }
+        public short paletteIndex(int index) { return records.getShort(offset(index) + Integer.BYTES); }
+        public String color(int index) { return palette.color(paletteIndex(index)); }
+        
+        public void setRadius(int index, int radius) { records.putInt(offset(index), radius); }
+        public void setColor(int index, String color) {
+            records.putShort(offset(index) + Integer.BYTES, palette.indexOf(color));
+        }
+        
+        public void forEach(CircleVisitor visitor) {
+            for (int i = 0; i < size; i++) {
+                int offset = i * RECORD_BYTES;
+                visitor.visit(i, records.getInt(offset), records.getShort(offset + Integer.BYTES));
+            }
+        }
+        
+        // Materializes a heap Circle only when one is really needed
+        public Circle toCircle(int index) { return new Circle(radius(index), color(index)); }
+        
+        private int offset(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Circle " + index + " of " + size);
+            }
+            return index * RECORD_BYTES;
+        }
     }
     
     public static void demonstrate() {
@@ -48,5 +315,131 @@ public class PrototypeDemo {
         clone.draw();
         
         System.out.println("Original and clone are different objects: " + (original != clone));
+        
+        // Registry: clones share the template's state until one of them is modified
+        PrototypeRegistry registry = new PrototypeRegistry();
+        registry.register("small-red", new Circle(5, "Red"));
+        Shape[] batch = registry.cloneN("small-red", 3);
+        ((Circle) batch[2]).setColor("Green");
+        System.out.println("Clones 0 and 1 share state: " + ((Circle) batch[0]).sharesStateWith((Circle) batch[1])
+                + ", modified clone shares state: " + ((Circle) batch[0]).sharesStateWith((Circle) batch[2]));
+        
+        // Off-heap store: circles live as 8-byte records with colors from a shared palette
+        CircleStore store = CircleStore.allocate(16, new ColorPalette());
+        int slot = store.cloneFrom(original);
+        store.setColor(slot, "Purple");
+        store.toCircle(slot).draw();
+    }
+    
+    // Cloning, heap and mapped-store runs; run from BenchmarkApp
+    public static void benchmark() {
+        System.out.println("\n--- Prototype Pattern benchmarks ---");
+        PrototypeRegistry registry = new PrototypeRegistry();
+        registry.register("small-red", new Circle(5, "Red"));
+        compareCloning(registry, 500_000);
+        compareHeapUsage(10_000_000);
+        persistToMappedStore();
+    }
+    
+    // Heap used by Circle objects vs the off-heap store for the same shapes
+    private static void compareHeapUsage(int count) {
+        Circle[] templates = {new Circle(5, "Red"), new Circle(10, "Blue"), new Circle(20, "Green")};
+        
+        long baseline = usedHeap();
+        Circle[] circles = new Circle[count];
+        for (int i = 0; i < count; i++) {
+            circles[i] = (Circle) templates[i % templates.length].clone();
+            if (i % 10 == 0) {
+                circles[i].setColor("Yellow");
+            }
+        }
+        long objectBytes = usedHeap() - baseline;
+        circles = null;
+        
+        baseline = usedHeap();
+        CircleStore store = CircleStore.allocate(count, new ColorPalette());
+        for (int i = 0; i < count; i++) {
+            int index = store.cloneFrom(templates[i % templates.length]);
+            if (i % 10 == 0) {
+                store.setColor(index, "Yellow");
+            }
+        }
+        long storeHeapBytes = usedHeap() - baseline;
+        long[] radiusSum = new long[1];
+        store.forEach((index, radius, color) -> radiusSum[0] += radius);
+        
+        System.out.printf("%d circles: objects %.1f MB heap, store %.1f MB heap + %.1f MB off-heap (radius sum %d)%n",
+                count, objectBytes / 1e6, Math.max(0, storeHeapBytes) / 1e6,
+                (double) count * CircleStore.RECORD_BYTES / 1e6, radiusSum[0]);
+    }
+    
+    // A synced mapped store reopens with its circles and colors intact
+    private static void persistToMappedStore() {
+        Path file = null;
+        try {
+            file = Files.createTempFile("circles", ".bin");
+            Files.delete(file); // mapped() creates it with a header
+            CircleStore writer = CircleStore.mapped(file, 1000);
+            writer.cloneFrom(new Circle(7, "Orange"), 999);
+            writer.cloneFrom(new Circle(42, "Teal"));
+            writer.sync();
+            CircleStore reader = CircleStore.mapped(file, 1000);
+            System.out.println("Mapped store file size: " + Files.size(file) + " bytes, reopened with "
+                    + reader.size() + " circles, last " + reader.toCircle(999).getRadius() + " "
+                    + reader.color(999) + ", on disk radius " + readRadius(file, 999));
+        } catch (IOException e) {
+            System.out.println("Mapped store unavailable: " + e.getMessage());
+        } finally {
+            if (file != null) {
+                try { Files.deleteIfExists(file); } catch (IOException e) {}
+            }
+        }
+    }
+    
+    private static int readRadius(Path file, int index) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer record = ByteBuffer.allocate(CircleStore.RECORD_BYTES);
+            channel.read(record, CircleStore.HEADER_BYTES + (long) index * CircleStore.RECORD_BYTES);
+            return record.getInt(0);
+        }
+    }
+    
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+    
+    // Rough timing of registry bulk cloning, per-call clone() and plain constructors
+    private static void compareCloning(PrototypeRegistry registry, int count) {
+        Shape[] target = new Shape[count];
+        Circle template = new Circle(5, "Red");
+        long bulk = Long.MAX_VALUE;
+        long perCall = Long.MAX_VALUE;
+        long constructed = Long.MAX_VALUE;
+        
+        // Best of a few rounds to get past JIT warm-up
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            registry.cloneInto("small-red", target, 0, count);
+            bulk = Math.min(bulk, System.nanoTime() - start);
+            
+            start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                target[i] = template.clone();
+            }
+            perCall = Math.min(perCall, System.nanoTime() - start);
+            
+            start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                target[i] = new Circle(5, "Red");
+            }
+            constructed = Math.min(constructed, System.nanoTime() - start);
+        }
+        
+        System.out.printf("%d shapes: registry bulk %.1f ns, clone() %.1f ns, constructor %.1f ns per shape%n",
+                count, (double) bulk / count, (double) perCall / count, (double) constructed / count);
     }
 }
\ No newline at end of file
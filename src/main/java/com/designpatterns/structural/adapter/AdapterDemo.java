@@ -1,5 +1,22 @@
 package com.designpatterns.structural.adapter;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
 /**
  * Adapter Pattern - Allows incompatible interfaces to work together.
  * Simple example: Making old printer work with new computer interface.
@@ -33,6 +50,250 @@ public class AdapterDemo {
         }
     }
     
+    // Buffering adapter - documents go into a bounded ring buffer and a background flusher
+    // merges them into large writes, so the legacy per-call overhead is paid once per batch
+    static class BufferedPrinterAdapter implements ModernPrinter, AutoCloseable {
+        private final OldPrinter oldPrinter;
+        private final BlockingQueue<String> buffer;
+        private final int flushSize;
+        private final long flushIntervalMillis;
+        private final Thread flusher;
+        private final Object progress = new Object();
+        private long submitted; // guarded by progress
+        private long printed;   // guarded by progress, includes documents in failed batches
+        private long failed;    // guarded by progress, failed documents not yet reported
+        private RuntimeException failure; // guarded by progress, first unreported failure
+        private boolean closed; // guarded by progress, so admission and close() cannot interleave
+        private final LongAdder legacyCalls = new LongAdder();
+        
+        public BufferedPrinterAdapter(OldPrinter oldPrinter, int capacity, int flushSize, long flushIntervalMillis) {
+            if (capacity < 1 || flushSize < 1 || flushIntervalMillis < 1) {
+                throw new IllegalArgumentException("Capacity, flush size and interval must be positive");
+            }
+            this.oldPrinter = oldPrinter;
+            this.buffer = new ArrayBlockingQueue<>(capacity);
+            this.flushSize = flushSize;
+            this.flushIntervalMillis = flushIntervalMillis;
+            this.flusher = new Thread(this::runFlusher, "printer-flusher");
+            flusher.setDaemon(true);
+            flusher.start();
+        }
+        
+        // Blocks while the buffer is full (backpressure)
+        @Override
+        public void printDocument(String document) {
+            synchronized (progress) {
+                if (closed) {
+                    throw new IllegalStateException("Printer adapter is closed");
+                }
+                submitted++;
+            }
+            try {
+                buffer.put(document);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                synchronized (progress) {
+                    submitted--;
+                    progress.notifyAll();
+                }
+                throw new IllegalStateException("Interrupted while waiting for buffer space", e);
+            }
+        }
+        
+        private void runFlusher() {
+            List<String> batch = new ArrayList<>(flushSize);
+            StringBuilder merged = new StringBuilder();
+            while (!drained()) {
+                try {
+                    String first = buffer.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    buffer.drainTo(batch, flushSize - 1);
+                } catch (InterruptedException e) {
+                    // close() interrupts to wake us up; keep draining until the buffer is empty
+                    continue;
+                }
+                merged.setLength(0);
+                for (int i = 0; i < batch.size(); i++) {
+                    if (i > 0) {
+                        merged.append('\n');
+                    }
+                    merged.append(batch.get(i));
+                }
+                // A failing printer must not stop the flusher: the batch is recorded as failed,
+                // counted as done so waiters wake up, and reported by the next flush()
+                try {
+                    oldPrinter.print(merged.toString());
+                    legacyCalls.increment();
+                } catch (RuntimeException e) {
+                    synchronized (progress) {
+                        failed += batch.size();
+                        if (failure == null) {
+                            failure = e;
+                        }
+                    }
+                } finally {
+                    synchronized (progress) {
+                        printed += batch.size();
+                        progress.notifyAll();
+                    }
+                    batch.clear();
+                }
+            }
+        }
+        
+        // The flusher stops only after close() once every admitted document is printed,
+        // including ones whose producer was still blocked in put() when close() ran
+        private boolean drained() {
+            synchronized (progress) {
+                return closed && printed == submitted;
+            }
+        }
+        
+        // Waits until every document submitted before this call has been handed to the
+        // printer; throws if any batch failed since the last flush
+        public void flush() {
+            synchronized (progress) {
+                long target = submitted;
+                // submitted drops when a producer is interrupted before its document is queued
+                while (printed < Math.min(target, submitted)) {
+                    try {
+                        progress.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                if (failure != null) {
+                    PrinterFailureException reported = new PrinterFailureException(failed, failure);
+                    failed = 0;
+                    failure = null;
+                    throw reported;
+                }
+            }
+        }
+        
+        public long getLegacyCallCount() { return legacyCalls.sum(); }
+        
+        @Override
+        public void close() {
+            synchronized (progress) {
+                closed = true;
+            }
+            try {
+                flush();
+            } finally {
+                flusher.interrupt();
+                try {
+                    flusher.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+    
+    // Documents the legacy printer rejected, reported by flush() or close()
+    static class PrinterFailureException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        private final long failedDocuments;
+        
+        PrinterFailureException(long failedDocuments, RuntimeException cause) {
+            super(failedDocuments + " document(s) failed to print: " + cause.getMessage(), cause);
+            this.failedDocuments = failedDocuments;
+        }
+        
+        public long getFailedDocuments() { return failedDocuments; }
+    }
+    
+    // Asynchronous target interface
+    interface AsyncModernPrinter {
+        CompletableFuture<Void> printDocument(String document);
+    }
+    
+    // General async adapter for any blocking legacy component. Each call runs on the given
+    // executor - ideally one virtual thread per task - with at most maxConcurrent calls
+    // inside the legacy component at once. Cancelling the returned future, or hitting the
+    // timeout, interrupts the blocked call.
+    static class AsyncAdapter<T> {
+        private final T legacy;
+        private final ExecutorService executor;
+        private final Semaphore permits;
+        private final long timeoutMillis;
+        
+        public AsyncAdapter(T legacy, ExecutorService executor, int maxConcurrent, long timeoutMillis) {
+            this.legacy = legacy;
+            this.executor = executor;
+            this.permits = new Semaphore(maxConcurrent);
+            this.timeoutMillis = timeoutMillis;
+        }
+        
+        public <R> CompletableFuture<R> call(Function<? super T, ? extends R> blockingCall) {
+            CompletableFuture<R> result = new CompletableFuture<>();
+            Future<?> task = executor.submit(() -> {
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                try {
+                    if (!result.isDone()) {
+                        result.complete(blockingCall.apply(legacy));
+                    }
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                } finally {
+                    permits.release();
+                }
+            });
+            result.whenComplete((value, error) -> {
+                if (result.isCancelled() || error instanceof TimeoutException) {
+                    task.cancel(true);
+                }
+            });
+            return timeoutMillis > 0 ? result.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS) : result;
+        }
+        
+        // Virtual-thread-per-task executor when the runtime has one (Java 21+), looked up
+        // reflectively because this project compiles for Java 17
+        static Optional<ExecutorService> virtualThreadExecutor() {
+            try {
+                return Optional.of((ExecutorService) Executors.class
+                        .getMethod("newVirtualThreadPerTaskExecutor").invoke(null));
+            } catch (ReflectiveOperationException e) {
+                return Optional.empty();
+            }
+        }
+    }
+    
+    // Async adapter for the old printer
+    static class AsyncPrinterAdapter implements AsyncModernPrinter {
+        private final AsyncAdapter<OldPrinter> adapter;
+        
+        public AsyncPrinterAdapter(AsyncAdapter<OldPrinter> adapter) { this.adapter = adapter; }
+        
+        @Override
+        public CompletableFuture<Void> printDocument(String document) {
+            return adapter.call(printer -> {
+                printer.print(document);
+                return null;
+            });
+        }
+    }
+    
+    // Simulated legacy device with a fixed per-call overhead that prints nothing
+    static class SlowOldPrinter extends OldPrinter {
+        private final long callOverheadNanos;
+        
+        SlowOldPrinter(long callOverheadNanos) { this.callOverheadNanos = callOverheadNanos; }
+        
+        @Override
+        public void print(String text) { LockSupport.parkNanos(callOverheadNanos); }
+    }
+    
     public static void demonstrate() {
         System.out.println("\n--- Adapter Pattern ---");
         
@@ -40,5 +301,81 @@ public class AdapterDemo {
         ModernPrinter adapter = new PrinterAdapter(oldPrinter);
         
         adapter.printDocument("Hello World!");
+        
+        // Buffered adapter: both documents reach the old printer in one merged write
+        try (BufferedPrinterAdapter buffered = new BufferedPrinterAdapter(oldPrinter, 64, 16, 50)) {
+            buffered.printDocument("Page 1");
+            buffered.printDocument("Page 2");
+        }
+        
+        // Async adapter: the caller gets a future instead of blocking on the device
+        ExecutorService executor = AsyncAdapter.virtualThreadExecutor().orElseGet(Executors::newCachedThreadPool);
+        AsyncModernPrinter async = new AsyncPrinterAdapter(new AsyncAdapter<>(oldPrinter, executor, 4, 1000));
+        async.printDocument("Async hello").join();
+        executor.shutdown();
+    }
+    
+    // Buffered and async printing under load; run from BenchmarkApp
+    public static void benchmark() {
+        System.out.println("\n--- Adapter Pattern benchmarks ---");
+        comparePrinting(2000);
+        compareAsyncLoad(50_000);
+    }
+    
+    // 50k concurrent print jobs against a slow device: platform thread pool vs virtual threads
+    private static void compareAsyncLoad(int calls) {
+        OldPrinter slow = new SlowOldPrinter(TimeUnit.MILLISECONDS.toNanos(5));
+        System.out.println(calls + " concurrent async print jobs (5ms per legacy call):");
+        
+        ExecutorService platform = Executors.newFixedThreadPool(256);
+        runAsyncLoad("platform pool (256 threads)", new AsyncAdapter<>(slow, platform, 256, 0), calls);
+        platform.shutdown();
+        
+        Optional<ExecutorService> virtual = AsyncAdapter.virtualThreadExecutor();
+        if (virtual.isPresent()) {
+            runAsyncLoad("virtual threads (limit 10000)", new AsyncAdapter<>(slow, virtual.get(), 10_000, 0), calls);
+            virtual.get().shutdown();
+        } else {
+            System.out.println("  virtual threads: not available on Java " + Runtime.version().feature());
+        }
+    }
+    
+    private static void runAsyncLoad(String label, AsyncAdapter<OldPrinter> adapter, int calls) {
+        AsyncModernPrinter printer = new AsyncPrinterAdapter(adapter);
+        long start = System.nanoTime();
+        List<CompletableFuture<Void>> jobs = new ArrayList<>(calls);
+        for (int i = 0; i < calls; i++) {
+            jobs.add(printer.printDocument("Job " + i));
+        }
+        CompletableFuture.allOf(jobs.toArray(new CompletableFuture<?>[0])).join();
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        System.out.printf("  %s: %d ms, %.0f jobs/s%n", label, millis, calls * 1000.0 / Math.max(1, millis));
+    }
+    
+    // Throughput and caller-side tail latency, direct vs buffered, against a slow device
+    private static void comparePrinting(int documents) {
+        long overhead = TimeUnit.MICROSECONDS.toNanos(200);
+        System.out.println("Printing " + documents + " documents (200us per legacy call):");
+        measure("direct  ", new PrinterAdapter(new SlowOldPrinter(overhead)), documents, null);
+        BufferedPrinterAdapter buffered = new BufferedPrinterAdapter(new SlowOldPrinter(overhead), 256, 64, 5);
+        measure("buffered", buffered, documents, buffered);
+        System.out.println("  buffered adapter made " + buffered.getLegacyCallCount() + " legacy calls");
+    }
+    
+    private static void measure(String label, ModernPrinter printer, int documents, BufferedPrinterAdapter buffered) {
+        long[] latencies = new long[documents];
+        long start = System.nanoTime();
+        for (int i = 0; i < documents; i++) {
+            long callStart = System.nanoTime();
+            printer.printDocument("Document " + i);
+            latencies[i] = System.nanoTime() - callStart;
+        }
+        if (buffered != null) {
+            buffered.close();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        Arrays.sort(latencies);
+        System.out.printf("  %s: %6.0f docs/s, p50 %5.1f us, p99 %6.1f us%n", label, documents / seconds,
+                latencies[documents / 2] / 1e3, latencies[documents * 99 / 100] / 1e3);
     }
 }
\ No newline at end of file
@@ -1,5 +1,22 @@
 package com.designpatterns.structural.bridge;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 /**
  * Bridge Pattern - Separates abstraction from implementation. Bridge is a structural design pattern that
  * lets you split a large class or a set of closely related classes into two separate hierarchies—abstraction
@@ -12,19 +29,355 @@ public class BridgeDemo {
     // Implementation interface
     interface Renderer {
         void renderCircle(int radius);
+        
+        // Batch submission - renderers that can do better than one call per shape override this
+        default void renderBatch(ShapeBatch batch) {
+            for (int i = 0; i < batch.size(); i++) {
+                renderCircle(batch.radius(i));
+            }
+        }
     }
     
     // Concrete implementations
     static class VectorRenderer implements Renderer {
+        private static final byte[] CIRCLE_CX = ascii("<circle cx=\"");
+        private static final byte[] CIRCLE_CY = ascii("\" cy=\"");
+        private static final byte[] CIRCLE_R = ascii("\" r=\"");
+        private static final byte[] CIRCLE_END = ascii("\"/>\n");
+        private static final int MAX_SHAPE_BYTES = 64;
+        
+        private final WritableByteChannel out;
+        private final ByteBuffer chunk;
+        private long shapesWritten;
+        private long bytesWritten;
+        
+        // Text-only renderer, as before
+        public VectorRenderer() {
+            this(null, 0);
+        }
+        
+        // Streaming SVG backend - shapes are encoded into one reusable buffer that is
+        // written to the channel whenever it fills, so output size never affects heap use
+        public VectorRenderer(WritableByteChannel out, int chunkBytes) {
+            this.out = out;
+            this.chunk = out == null ? null : ByteBuffer.allocateDirect(Math.max(chunkBytes, MAX_SHAPE_BYTES));
+        }
+        
+        private static byte[] ascii(String text) { return text.getBytes(StandardCharsets.US_ASCII); }
+        
         public void renderCircle(int radius) {
-            System.out.println("Vector circle with radius " + radius);
+            if (out == null) {
+                System.out.println("Vector circle with radius " + radius);
+                return;
+            }
+            drawCircle(0, 0, radius);
         }
+        
+        @Override
+        public void renderBatch(ShapeBatch batch) {
+            if (out == null) {
+                Renderer.super.renderBatch(batch);
+                return;
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                drawCircle(batch.x(i), batch.y(i), batch.radius(i));
+            }
+        }
+        
+        // Primitive-array batch entry point - no objects per shape
+        public void drawBatch(int[] centersX, int[] centersY, int[] radii, int count) {
+            for (int i = 0; i < count; i++) {
+                if (out == null) {
+                    renderCircle(radii[i]);
+                } else {
+                    drawCircle(centersX[i], centersY[i], radii[i]);
+                }
+            }
+        }
+        
+        // The text-only renderer has no document to open or close
+        public void begin(int width, int height) {
+            if (out == null) {
+                return;
+            }
+            writeAscii("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"" + width + "\" height=\"" + height + "\">\n");
+        }
+        
+        // Closes the document and pushes out whatever is still buffered
+        public void end() {
+            if (out == null) {
+                return;
+            }
+            writeAscii("</svg>\n");
+            drain();
+        }
+        
+        private void drawCircle(int x, int y, int r) {
+            if (chunk.remaining() < MAX_SHAPE_BYTES) {
+                drain();
+            }
+            chunk.put(CIRCLE_CX);
+            putInt(x);
+            chunk.put(CIRCLE_CY);
+            putInt(y);
+            chunk.put(CIRCLE_R);
+            putInt(r);
+            chunk.put(CIRCLE_END);
+            shapesWritten++;
+        }
+        
+        // Writes decimal digits straight into the buffer, without an intermediate String
+        private void putInt(int value) {
+            long v = value;
+            if (v < 0) {
+                chunk.put((byte) '-');
+                v = -v;
+            }
+            long divisor = 1;
+            while (divisor * 10 <= v) {
+                divisor *= 10;
+            }
+            for (; divisor > 0; divisor /= 10) {
+                chunk.put((byte) ('0' + (v / divisor) % 10));
+            }
+        }
+        
+        private void writeAscii(String text) {
+            byte[] bytes = ascii(text);
+            if (chunk.remaining() < bytes.length) {
+                drain();
+            }
+            chunk.put(bytes);
+        }
+        
+        private void drain() {
+            chunk.flip();
+            try {
+                while (chunk.hasRemaining()) {
+                    bytesWritten += out.write(chunk);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            chunk.clear();
+        }
+        
+        public long getShapesWritten() { return shapesWritten; }
+        public long getBytesWritten() { return bytesWritten; }
     }
     
     static class RasterRenderer implements Renderer {
+        private static final int TILE_SIZE = 64;
+        
+        private final Framebuffer framebuffer;
+        private final ForkJoinPool pool;
+        
+        // Text-only renderer, as before
+        public RasterRenderer() {
+            this(null, null);
+        }
+        
+        // Draws into the framebuffer, rasterizing tiles in parallel on the given pool
+        public RasterRenderer(Framebuffer framebuffer, ForkJoinPool pool) {
+            this.framebuffer = framebuffer;
+            this.pool = pool;
+        }
+        
         public void renderCircle(int radius) {
-            System.out.println("Raster circle with radius " + radius);
+            if (framebuffer == null) {
+                System.out.println("Raster circle with radius " + radius);
+                return;
+            }
+            fillCircle(framebuffer.width / 2, framebuffer.height / 2, radius, 0xFFFFFFFF,
+                    0, 0, framebuffer.width, framebuffer.height);
+        }
+        
+        @Override
+        public void renderBatch(ShapeBatch batch) {
+            if (framebuffer == null) {
+                Renderer.super.renderBatch(batch);
+                return;
+            }
+            int tilesX = (framebuffer.width + TILE_SIZE - 1) / TILE_SIZE;
+            int tilesY = (framebuffer.height + TILE_SIZE - 1) / TILE_SIZE;
+            int[] tileStart = new int[tilesX * tilesY + 1];
+            int[] tileShapes = binShapes(batch, tilesX, tilesY, tileStart);
+            pool.invoke(new TileTask(batch, tileStart, tileShapes, 0, tilesX * tilesY, tilesX));
+        }
+        
+        // Counting sort of shape indexes by the tiles their bounding box touches. Tile t's
+        // shapes end up in tileShapes[tileStart[t] .. tileStart[t + 1]) in submission order.
+        private int[] binShapes(ShapeBatch batch, int tilesX, int tilesY, int[] tileStart) {
+            int[] bounds = new int[batch.size() * 4];
+            for (int i = 0; i < batch.size(); i++) {
+                int x = batch.x(i);
+                int y = batch.y(i);
+                int r = batch.radius(i);
+                int b = i * 4;
+                if (x + r < 0 || y + r < 0 || x - r >= framebuffer.width || y - r >= framebuffer.height) {
+                    bounds[b] = 1; // off screen: an empty tile range
+                    continue;
+                }
+                bounds[b] = Math.max(0, Math.floorDiv(x - r, TILE_SIZE));
+                bounds[b + 1] = Math.min(tilesX - 1, Math.floorDiv(x + r, TILE_SIZE));
+                bounds[b + 2] = Math.max(0, Math.floorDiv(y - r, TILE_SIZE));
+                bounds[b + 3] = Math.min(tilesY - 1, Math.floorDiv(y + r, TILE_SIZE));
+                for (int ty = bounds[b + 2]; ty <= bounds[b + 3]; ty++) {
+                    for (int tx = bounds[b]; tx <= bounds[b + 1]; tx++) {
+                        tileStart[ty * tilesX + tx + 1]++;
+                    }
+                }
+            }
+            for (int t = 1; t < tileStart.length; t++) {
+                tileStart[t] += tileStart[t - 1];
+            }
+            int[] tileShapes = new int[tileStart[tileStart.length - 1]];
+            int[] next = Arrays.copyOf(tileStart, tileStart.length - 1);
+            for (int i = 0; i < batch.size(); i++) {
+                int b = i * 4;
+                for (int ty = bounds[b + 2]; ty <= bounds[b + 3]; ty++) {
+                    for (int tx = bounds[b]; tx <= bounds[b + 1]; tx++) {
+                        tileShapes[next[ty * tilesX + tx]++] = i;
+                    }
+                }
+            }
+            return tileShapes;
         }
+        
+        // Splits the tile range until one tile is left; every tile draws only its binned
+        // shapes, in submission order, so overlapping circles composite as a serial pass would
+        private final class TileTask extends RecursiveAction {
+            private static final long serialVersionUID = 1L;
+            private final ShapeBatch batch;
+            private final int[] tileStart;
+            private final int[] tileShapes;
+            private final int fromTile;
+            private final int toTile;
+            private final int tilesX;
+            
+            TileTask(ShapeBatch batch, int[] tileStart, int[] tileShapes, int fromTile, int toTile, int tilesX) {
+                this.batch = batch;
+                this.tileStart = tileStart;
+                this.tileShapes = tileShapes;
+                this.fromTile = fromTile;
+                this.toTile = toTile;
+                this.tilesX = tilesX;
+            }
+            
+            @Override
+            protected void compute() {
+                if (toTile - fromTile > 1) {
+                    int mid = (fromTile + toTile) >>> 1;
+                    invokeAll(new TileTask(batch, tileStart, tileShapes, fromTile, mid, tilesX),
+                            new TileTask(batch, tileStart, tileShapes, mid, toTile, tilesX));
+                    return;
+                }
+                int minX = (fromTile % tilesX) * TILE_SIZE;
+                int minY = (fromTile / tilesX) * TILE_SIZE;
+                int maxX = Math.min(minX + TILE_SIZE, framebuffer.width);
+                int maxY = Math.min(minY + TILE_SIZE, framebuffer.height);
+                for (int k = tileStart[fromTile]; k < tileStart[fromTile + 1]; k++) {
+                    int i = tileShapes[k];
+                    fillCircle(batch.x(i), batch.y(i), batch.radius(i), batch.color(i), minX, minY, maxX, maxY);
+                }
+            }
+        }
+        
+        // Scanline fill. The half-width of each row is stepped down incrementally from the
+        // radius (midpoint style, integers only) and each span is clipped to the tile.
+        private void fillCircle(int cx, int cy, int r, int argb, int minX, int minY, int maxX, int maxY) {
+            int[] pixels = framebuffer.pixels;
+            int width = framebuffer.width;
+            int halfWidth = r;
+            long rr = (long) r * r;
+            for (int dy = 0; dy <= r; dy++) {
+                while ((long) halfWidth * halfWidth + (long) dy * dy > rr) {
+                    halfWidth--;
+                }
+                int from = Math.max(cx - halfWidth, minX);
+                int to = Math.min(cx + halfWidth + 1, maxX);
+                if (from >= to) {
+                    continue;
+                }
+                int below = cy + dy;
+                if (below >= minY && below < maxY) {
+                    Arrays.fill(pixels, below * width + from, below * width + to, argb);
+                }
+                int above = cy - dy;
+                if (dy > 0 && above >= minY && above < maxY) {
+                    Arrays.fill(pixels, above * width + from, above * width + to, argb);
+                }
+            }
+        }
+    }
+    
+    // ARGB framebuffer with PPM export
+    static class Framebuffer {
+        final int width;
+        final int height;
+        final int[] pixels;
+        
+        public Framebuffer(int width, int height) {
+            this.width = width;
+            this.height = height;
+            this.pixels = new int[width * height];
+        }
+        
+        public void clear(int argb) { Arrays.fill(pixels, argb); }
+        
+        public int pixel(int x, int y) { return pixels[y * width + x]; }
+        
+        // Binary PPM (P6) - alpha is dropped
+        public void writePpm(Path file) throws IOException {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16)) {
+                out.write(("P6\n" + width + " " + height + "\n255\n").getBytes(StandardCharsets.US_ASCII));
+                byte[] row = new byte[width * 3];
+                for (int y = 0; y < height; y++) {
+                    for (int x = 0, p = y * width; x < width; x++, p++) {
+                        int argb = pixels[p];
+                        row[x * 3] = (byte) (argb >> 16);
+                        row[x * 3 + 1] = (byte) (argb >> 8);
+                        row[x * 3 + 2] = (byte) argb;
+                    }
+                    out.write(row);
+                }
+            }
+        }
+    }
+    
+    // Per-frame batch of circles in struct-of-arrays form, filled by Shape.submitTo
+    static class ShapeBatch {
+        private int[] xs = new int[256];
+        private int[] ys = new int[256];
+        private int[] radii = new int[256];
+        private int[] colors = new int[256];
+        private int size;
+        
+        public void addCircle(int x, int y, int radius, int argb) {
+            if (size == xs.length) {
+                int capacity = size * 2;
+                xs = Arrays.copyOf(xs, capacity);
+                ys = Arrays.copyOf(ys, capacity);
+                radii = Arrays.copyOf(radii, capacity);
+                colors = Arrays.copyOf(colors, capacity);
+            }
+            xs[size] = x;
+            ys[size] = y;
+            radii[size] = radius;
+            colors[size] = argb;
+            size++;
+        }
+        
+        public int size() { return size; }
+        public int x(int i) { return xs[i]; }
+        public int y(int i) { return ys[i]; }
+        public int radius(int i) { return radii[i]; }
+        public int color(int i) { return colors[i]; }
+        
+        public void clear() { size = 0; }
+        
+        // Hands the whole frame to one renderer in a single call
+        public void draw(Renderer renderer) { renderer.renderBatch(this); }
     }
     
     // Abstraction
@@ -36,21 +389,39 @@ public class BridgeDemo {
         }
         
         public abstract void draw();
+        
+        // Adds this shape to a frame batch instead of drawing it right away
+        public abstract void submitTo(ShapeBatch batch);
     }
     
     // Refined abstraction
     static class Circle extends Shape {
         private int radius;
+        private int x;
+        private int y;
+        private int color = 0xFFFFFFFF;
         
         public Circle(Renderer renderer, int radius) {
             super(renderer);
             this.radius = radius;
         }
         
+        public Circle(Renderer renderer, int x, int y, int radius, int argb) {
+            this(renderer, radius);
+            this.x = x;
+            this.y = y;
+            this.color = argb;
+        }
+        
         @Override
         public void draw() {
             renderer.renderCircle(radius);
         }
+        
+        @Override
+        public void submitTo(ShapeBatch batch) {
+            batch.addCircle(x, y, radius, color);
+        }
     }
     
     public static void demonstrate() {
@@ -62,4 +433,113 @@ public class BridgeDemo {
         vectorCircle.draw();
         rasterCircle.draw();
     }
+    
+    // Raster and SVG throughput; run from BenchmarkApp
+    public static void benchmark() {
+        System.out.println("\n--- Bridge Pattern benchmarks ---");
+        rasterizeToPpm();
+        benchmarkRaster();
+        streamSvg(5_000_000);
+    }
+    
+    // Streams millions of circles to an SVG file; bytes allocated must stay flat as output grows
+    private static void streamSvg(int shapes) {
+        int batchSize = 10_000;
+        int[] xs = new int[batchSize];
+        int[] ys = new int[batchSize];
+        int[] radii = new int[batchSize];
+        Random random = new Random(11);
+        for (int i = 0; i < batchSize; i++) {
+            xs[i] = random.nextInt(10_000);
+            ys[i] = random.nextInt(10_000);
+            radii[i] = 1 + random.nextInt(500);
+        }
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        
+        Path file = null;
+        try {
+            file = Files.createTempFile("bridge-scene", ".svg");
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                VectorRenderer svg = new VectorRenderer(channel, 1 << 20);
+                long allocatedBefore = threadBean.getCurrentThreadAllocatedBytes();
+                long start = System.nanoTime();
+                svg.begin(10_000, 10_000);
+                for (int written = 0; written < shapes; written += batchSize) {
+                    svg.drawBatch(xs, ys, radii, Math.min(batchSize, shapes - written));
+                }
+                svg.end();
+                double seconds = (System.nanoTime() - start) / 1e9;
+                long allocated = threadBean.getCurrentThreadAllocatedBytes() - allocatedBefore;
+                System.out.printf("SVG stream: %d shapes, %.1f MB in %.2f s (%.1fM shapes/s, %.0f MB/s), %d KB allocated%n",
+                        svg.getShapesWritten(), svg.getBytesWritten() / 1e6, seconds,
+                        svg.getShapesWritten() / seconds / 1e6, svg.getBytesWritten() / 1e6 / seconds, allocated / 1024);
+            }
+        } catch (IOException e) {
+            System.out.println("Could not write SVG: " + e.getMessage());
+        } finally {
+            if (file != null) {
+                try { Files.deleteIfExists(file); } catch (IOException e) {}
+            }
+        }
+    }
+    
+    // Renders a small scene and checks the PPM written from the framebuffer
+    private static void rasterizeToPpm() {
+        Framebuffer framebuffer = new Framebuffer(320, 240);
+        framebuffer.clear(0xFF000000);
+        Renderer raster = new RasterRenderer(framebuffer, ForkJoinPool.commonPool());
+        ShapeBatch frame = new ShapeBatch();
+        new Circle(raster, 100, 120, 60, 0xFFFF0000).submitTo(frame);
+        new Circle(raster, 220, 120, 60, 0xFF0000FF).submitTo(frame);
+        frame.draw(raster);
+        
+        Path file = null;
+        try {
+            file = Files.createTempFile("bridge-scene", ".ppm");
+            framebuffer.writePpm(file);
+            byte[] ppm = Files.readAllBytes(file);
+            int header = "P6\n320 240\n255\n".length();
+            int offset = header + (120 * 320 + 100) * 3;
+            System.out.printf("PPM %d bytes, pixel (100,120) = #%02X%02X%02X, pixel (0,0) = #%06X%n", ppm.length,
+                    ppm[offset], ppm[offset + 1], ppm[offset + 2], framebuffer.pixel(0, 0) & 0xFFFFFF);
+        } catch (IOException e) {
+            System.out.println("Could not write PPM: " + e.getMessage());
+        } finally {
+            if (file != null) {
+                try { Files.deleteIfExists(file); } catch (IOException e) {}
+            }
+        }
+    }
+    
+    // Frames per second by scene size and number of cores
+    private static void benchmarkRaster() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int[] parallelisms = cores > 1 ? new int[] {1, cores} : new int[] {1};
+        Framebuffer framebuffer = new Framebuffer(1920, 1080);
+        System.out.println("Raster 1920x1080 frames/s by scene size and cores:");
+        for (int circles : new int[] {1_000, 10_000}) {
+            ShapeBatch frame = new ShapeBatch();
+            Random random = new Random(7);
+            for (int i = 0; i < circles; i++) {
+                frame.addCircle(random.nextInt(1920), random.nextInt(1080), 4 + random.nextInt(40),
+                        0xFF000000 | random.nextInt(0xFFFFFF));
+            }
+            for (int parallelism : parallelisms) {
+                ForkJoinPool pool = new ForkJoinPool(parallelism);
+                Renderer raster = new RasterRenderer(framebuffer, pool);
+                int frames = 0;
+                long start = System.nanoTime();
+                long elapsed;
+                do {
+                    framebuffer.clear(0xFF000000);
+                    frame.draw(raster);
+                    frames++;
+                    elapsed = System.nanoTime() - start;
+                } while (elapsed < 300_000_000L);
+                pool.shutdown();
+                System.out.printf("  %6d circles, %2d core(s): %6.1f fps%n", circles, parallelism, frames / (elapsed / 1e9));
+            }
+        }
+    }
 }
\ No newline at end of file
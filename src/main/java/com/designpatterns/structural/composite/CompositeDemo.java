@@ -1,6 +1,25 @@
 package com.designpatterns.structural.composite;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Composite Pattern - Composes objects into tree structures.
@@ -11,13 +30,60 @@ public class CompositeDemo {
     // Component interface
     interface FileSystemItem {
         void display(String indent);
+        String getName();
+        
+        // Cached subtree totals, read in O(1)
+        Aggregates aggregates();
+        
+        // Number of nodes in this subtree, including this one
+        default int nodeCount() { return aggregates().nodeCount; }
+    }
+    
+    // Immutable snapshot of subtree totals. A folder swaps in a new snapshot on every
+    // change, so a reader always sees counts, size and height from the same moment.
+    static final class Aggregates {
+        static final Aggregates EMPTY_FOLDER = new Aggregates(1, 0, 0, 0);
+        
+        final int nodeCount;
+        final long fileCount;
+        final long totalSize;
+        final int height;
+        
+        Aggregates(int nodeCount, long fileCount, long totalSize, int height) {
+            this.nodeCount = nodeCount;
+            this.fileCount = fileCount;
+            this.totalSize = totalSize;
+            this.height = height;
+        }
+        
+        public int getNodeCount() { return nodeCount; }
+        public long getFileCount() { return fileCount; }
+        public long getTotalSize() { return totalSize; }
+        public int getHeight() { return height; }
+        
+        @Override
+        public String toString() {
+            return "nodes=" + nodeCount + ", files=" + fileCount + ", bytes=" + totalSize + ", height=" + height;
+        }
     }
     
     // Leaf
     static class File implements FileSystemItem {
         private String name;
+        private long size;
+        private final Aggregates aggregates;
+        
+        public File(String name) { this(name, 0); }
+        
+        public File(String name, long size) {
+            this.name = name;
+            this.size = size;
+            this.aggregates = new Aggregates(1, 1, size, 0);
+        }
         
-        public File(String name) { this.name = name; }
+        public String getName() { return name; }
+        public long getSize() { return size; }
+        public Aggregates aggregates() { return aggregates; }
         
         @Override
         public void display(String indent) {
@@ -25,24 +91,912 @@ public class CompositeDemo {
         }
     }
     
+    // Immutable view of a folder's children, so readers never lock and never see a list
+    // mid-change. Appends share the backing array (slots below an older snapshot's size are
+    // never rewritten); removes copy. Folders wider than INDEX_THRESHOLD also carry an
+    // open-addressed table of positions into the array, about 8-16 bytes per child.
+    static final class Children extends AbstractList<FileSystemItem> implements RandomAccess {
+        static final Children EMPTY = new Children(new FileSystemItem[0], 0, null);
+        private static final int INDEX_THRESHOLD = 64;
+        private static final int FREE = -1;
+        
+        private final FileSystemItem[] items;
+        private final int size;
+        private final int[] table; // null below the threshold
+        
+        private Children(FileSystemItem[] items, int size, int[] table) {
+            this.items = items;
+            this.size = size;
+            this.table = table;
+        }
+        
+        @Override
+        public FileSystemItem get(int index) {
+            Objects.checkIndex(index, size);
+            return items[index];
+        }
+        
+        @Override
+        public int size() { return size; }
+        
+        // First child with the given name, as with a scan
+        FileSystemItem find(String name) {
+            if (table == null) {
+                for (int i = 0; i < size; i++) {
+                    if (items[i].getName().equals(name)) {
+                        return items[i];
+                    }
+                }
+                return null;
+            }
+            int mask = table.length - 1;
+            for (int slot = spread(name.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+                int position = table[slot];
+                if (position == FREE) {
+                    return null;
+                }
+                // Positions past this snapshot belong to a newer append
+                if (position < size && items[position].getName().equals(name)) {
+                    return items[position];
+                }
+            }
+        }
+        
+        Children append(FileSystemItem item) {
+            FileSystemItem[] array = items;
+            if (size == array.length) {
+                array = Arrays.copyOf(array, Math.max(4, size + (size >> 1)));
+            }
+            array[size] = item;
+            int grown = size + 1;
+            int[] index = table;
+            if (grown > INDEX_THRESHOLD && (index == null || grown * 2 > index.length)) {
+                index = buildTable(array, grown);
+            } else if (index != null) {
+                insert(index, array, size);
+            }
+            return new Children(array, grown, index);
+        }
+        
+        // Returns this snapshot unchanged when the item is not a child
+        Children without(FileSystemItem item) {
+            for (int i = 0; i < size; i++) {
+                if (items[i] == item) {
+                    FileSystemItem[] array = new FileSystemItem[Math.max(4, size - 1)];
+                    System.arraycopy(items, 0, array, 0, i);
+                    System.arraycopy(items, i + 1, array, i, size - i - 1);
+                    int shrunk = size - 1;
+                    return new Children(array, shrunk, shrunk > INDEX_THRESHOLD ? buildTable(array, shrunk) : null);
+                }
+            }
+            return this;
+        }
+        
+        // Load factor between 1/4 and 1/2
+        private static int[] buildTable(FileSystemItem[] array, int count) {
+            int[] index = new int[Integer.highestOneBit(count * 4)];
+            Arrays.fill(index, FREE);
+            for (int i = 0; i < count; i++) {
+                insert(index, array, i);
+            }
+            return index;
+        }
+        
+        // Keeps the first position for a duplicate name, matching find() on a scan
+        private static void insert(int[] index, FileSystemItem[] array, int position) {
+            String name = array[position].getName();
+            int mask = index.length - 1;
+            for (int slot = spread(name.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+                if (index[slot] == FREE) {
+                    index[slot] = position;
+                    return;
+                }
+                if (array[index[slot]].getName().equals(name)) {
+                    return;
+                }
+            }
+        }
+        
+        private static int spread(int hash) { return hash ^ (hash >>> 16); }
+    }
+    
     // Composite
     static class Folder implements FileSystemItem {
         private String name;
-        private List<FileSystemItem> items = new ArrayList<>();
+        // Published snapshot of the children; replaced on every change, never mutated in place
+        private volatile Children contents = Children.EMPTY;
+        private volatile Folder parent;
+        private volatile Aggregates aggregates = Aggregates.EMPTY_FOLDER;
         
         public Folder(String name) { this.name = name; }
         
-        public void add(FileSystemItem item) { items.add(item); }
+        // Structural changes lock the monitor of the tree's root, so writers on different
+        // trees never contend; readers never lock. The root is checked again once held,
+        // since this folder may have been attached or detached while waiting.
+        private Folder root() {
+            Folder root = this;
+            while (root.parent != null) {
+                root = root.parent;
+            }
+            return root;
+        }
+        
+        public void add(FileSystemItem item) {
+            while (true) {
+                Folder root = root();
+                synchronized (root) {
+                    if (root() != root) {
+                        continue;
+                    }
+                    if (item instanceof Folder) {
+                        // An added folder is its own root until attached; holding it makes
+                        // writers inside it wait and then lock the new root
+                        synchronized (item) {
+                            attach(item);
+                        }
+                    } else {
+                        attach(item);
+                    }
+                    return;
+                }
+            }
+        }
+        
+        public boolean remove(FileSystemItem item) {
+            while (true) {
+                Folder root = root();
+                synchronized (root) {
+                    if (root() == root) {
+                        return detach(item);
+                    }
+                }
+            }
+        }
+        
+        private void attach(FileSystemItem item) {
+            contents = contents.append(item);
+            if (item instanceof Folder) {
+                ((Folder) item).parent = this;
+            }
+            // Totals are additive; heights can only grow on add
+            Aggregates added = item.aggregates();
+            int childHeight = added.height;
+            for (Folder folder = this; folder != null; folder = folder.parent) {
+                Aggregates current = folder.aggregates;
+                folder.aggregates = new Aggregates(current.nodeCount + added.nodeCount,
+                        current.fileCount + added.fileCount, current.totalSize + added.totalSize,
+                        Math.max(current.height, childHeight + 1));
+                childHeight = folder.aggregates.height;
+            }
+        }
+        
+        private boolean detach(FileSystemItem item) {
+            Children remaining = contents.without(item);
+            if (remaining == contents) {
+                return false;
+            }
+            contents = remaining;
+            if (item instanceof Folder) {
+                ((Folder) item).parent = null;
+            }
+            // Subtract along the ancestor path; a height is recomputed from the children's
+            // cached heights only where the removed branch may have been the tallest
+            Aggregates removed = item.aggregates();
+            boolean heightMayShrink = true;
+            for (Folder folder = this; folder != null; folder = folder.parent) {
+                Aggregates current = folder.aggregates;
+                int height = current.height;
+                if (heightMayShrink) {
+                    height = 0;
+                    for (FileSystemItem child : folder.contents) {
+                        height = Math.max(height, child.aggregates().height + 1);
+                    }
+                    heightMayShrink = height != current.height;
+                }
+                folder.aggregates = new Aggregates(current.nodeCount - removed.nodeCount,
+                        current.fileCount - removed.fileCount, current.totalSize - removed.totalSize, height);
+            }
+            return true;
+        }
+        
+        public Aggregates aggregates() { return aggregates; }
+        
+        // Direct child by name, without locking: a table probe for wide folders, a scan for the rest
+        public FileSystemItem child(String name) {
+            List<FileSystemItem> children = children();
+            if (children instanceof Children) {
+                return ((Children) children).find(name);
+            }
+            for (FileSystemItem item : children) {
+                if (item.getName().equals(name)) {
+                    return item;
+                }
+            }
+            return null;
+        }
+        
+        // Resolves a relative path such as "a/b/c" with one lookup per level
+        public Optional<FileSystemItem> resolve(String path) {
+            FileSystemItem current = this;
+            for (String segment : path.split("/")) {
+                if (segment.isEmpty() || segment.equals(".")) {
+                    continue;
+                }
+                if (!(current instanceof Folder)) {
+                    return Optional.empty();
+                }
+                current = ((Folder) current).child(segment);
+                if (current == null) {
+                    return Optional.empty();
+                }
+            }
+            return Optional.of(current);
+        }
+        
+        // Glob query relative to this folder: '*' and '?' match within one name, '**' any
+        // number of folders. Literal segments go through the index, so "a/b/*.pdf"
+        // only scans the last folder.
+        public List<String> glob(String pattern) {
+            String[] segments = Arrays.stream(pattern.split("/")).filter(p -> !p.isEmpty()).toArray(String[]::new);
+            // Wildcard segments are compiled once per query, not once per folder visited
+            Pattern[] wildcards = new Pattern[segments.length];
+            for (int i = 0; i < segments.length; i++) {
+                if (!segments[i].equals("**") && (segments[i].indexOf('*') >= 0 || segments[i].indexOf('?') >= 0)) {
+                    wildcards[i] = globSegment(segments[i]);
+                }
+            }
+            List<String> matches = new ArrayList<>();
+            globFrom(this, segments, wildcards, 0, "", matches);
+            return matches;
+        }
+        
+        private static void globFrom(FileSystemItem item, String[] segments, Pattern[] wildcards, int next,
+                                     String path, List<String> matches) {
+            if (next == segments.length) {
+                matches.add(path);
+                return;
+            }
+            if (!(item instanceof Folder)) {
+                return;
+            }
+            Folder folder = (Folder) item;
+            String segment = segments[next];
+            if (segment.equals("**")) {
+                // Zero folders, then one more folder level with "**" still active
+                globFrom(folder, segments, wildcards, next + 1, path, matches);
+                for (FileSystemItem child : folder.children()) {
+                    if (child instanceof Folder) {
+                        globFrom(child, segments, wildcards, next, join(path, child.getName()), matches);
+                    }
+                }
+            } else if (wildcards[next] == null) {
+                FileSystemItem child = folder.child(segment);
+                if (child != null) {
+                    globFrom(child, segments, wildcards, next + 1, join(path, segment), matches);
+                }
+            } else {
+                Pattern regex = wildcards[next];
+                for (FileSystemItem child : folder.children()) {
+                    if (regex.matcher(child.getName()).matches()) {
+                        globFrom(child, segments, wildcards, next + 1, join(path, child.getName()), matches);
+                    }
+                }
+            }
+        }
+        
+        private static String join(String path, String name) { return path.isEmpty() ? name : path + "/" + name; }
+        
+        private static Pattern globSegment(String segment) {
+            StringBuilder regex = new StringBuilder();
+            for (char c : segment.toCharArray()) {
+                if (c == '*') {
+                    regex.append(".*");
+                } else if (c == '?') {
+                    regex.append('.');
+                } else {
+                    regex.append(Pattern.quote(String.valueOf(c)));
+                }
+            }
+            return Pattern.compile(regex.toString());
+        }
+        
+        public String getName() { return name; }
+        public List<FileSystemItem> getItems() { return Collections.unmodifiableList(children()); }
+        
+        // Child list used by every traversal; subclasses may load it on demand
+        List<FileSystemItem> children() { return contents; }
         
         @Override
         public void display(String indent) {
             System.out.println(indent + "Folder: " + name);
-            for (FileSystemItem item : items) {
+            for (FileSystemItem item : children()) {
                 item.display(indent + "  ");
             }
         }
     }
     
+    // Bounded LRU cache of loaded directory listings, shared by all folders of one disk tree.
+    // A directory's subtree totals live in its listing's entry and are evicted with it.
+    // Evicted listings are simply read again from disk on next access.
+    static class DirectoryCache {
+        private static final class Entry {
+            final List<FileSystemItem> children;
+            Aggregates totals;
+            
+            Entry(List<FileSystemItem> children) { this.children = children; }
+        }
+        
+        private final int maxEntries;
+        private final LinkedHashMap<Path, Entry> listings = new LinkedHashMap<>(16, 0.75f, true);
+        private int cachedEntries;
+        private long loads;
+        private long evictions;
+        
+        public DirectoryCache(int maxEntries) { this.maxEntries = maxEntries; }
+        
+        synchronized List<FileSystemItem> get(Path directory) {
+            Entry entry = listings.get(directory);
+            return entry == null ? null : entry.children;
+        }
+        
+        synchronized void put(Path directory, List<FileSystemItem> children) {
+            loads++;
+            Entry previous = listings.put(directory, new Entry(children));
+            cachedEntries += children.size() - (previous == null ? 0 : previous.children.size());
+            Iterator<Map.Entry<Path, Entry>> eldest = listings.entrySet().iterator();
+            while (cachedEntries > maxEntries && eldest.hasNext()) {
+                Map.Entry<Path, Entry> entry = eldest.next();
+                if (entry.getKey().equals(directory)) {
+                    continue; // never evict the listing that was just loaded
+                }
+                cachedEntries -= entry.getValue().children.size();
+                eldest.remove();
+                evictions++;
+            }
+        }
+        
+        synchronized Aggregates totals(Path directory) {
+            Entry entry = listings.get(directory);
+            return entry == null ? null : entry.totals;
+        }
+        
+        // Dropped if the listing has already been evicted; the totals are recomputed on demand
+        synchronized void putTotals(Path directory, Aggregates aggregates) {
+            Entry entry = listings.get(directory);
+            if (entry != null) {
+                entry.totals = aggregates;
+            }
+        }
+        
+        public synchronized int getCachedEntries() { return cachedEntries; }
+        public synchronized long getLoadCount() { return loads; }
+        public synchronized long getEvictionCount() { return evictions; }
+    }
+    
+    // File read from disk - size comes from the same attribute read that classified the entry
+    static class DiskFile extends File {
+        DiskFile(String name, long size) { super(name, size); }
+    }
+    
+    // Folder backed by a real directory. Nothing is read until the folder is first
+    // accessed; stream() then yields children straight from the directory stream, while
+    // children() materializes the listing through the shared bounded cache.
+    static class DiskFolder extends Folder {
+        private final Path path;
+        private final DirectoryCache cache;
+        
+        private DiskFolder(Path path, DirectoryCache cache) {
+            super(path.getFileName() == null ? path.toString() : path.getFileName().toString());
+            this.path = path;
+            this.cache = cache;
+        }
+        
+        public static DiskFolder open(Path directory, DirectoryCache cache) {
+            if (!Files.isDirectory(directory)) {
+                throw new IllegalArgumentException("Not a directory: " + directory);
+            }
+            return new DiskFolder(directory, cache);
+        }
+        
+        public Path getPath() { return path; }
+        
+        // Disk trees are read-only views of the filesystem
+        @Override
+        public void add(FileSystemItem item) {
+            throw new UnsupportedOperationException("Disk folders are read-only");
+        }
+        
+        // Totals need the whole subtree, so the first call sizes it in one post-order pass with
+        // an explicit stack and records every directory's totals in the cache. Later calls, and
+        // nodeCount() during a parallel traversal, are lookups while the listing stays cached.
+        // The pass keeps its own totals, dropping each once its parent is summed, since the cache
+        // may evict them mid-walk. The disk is treated as a snapshot.
+        @Override
+        public Aggregates aggregates() {
+            Aggregates known = cache.totals(path);
+            if (known != null) {
+                return known;
+            }
+            Map<Path, Aggregates> computed = new HashMap<>();
+            Deque<DiskFolder> pending = new ArrayDeque<>();
+            Deque<DiskFolder> order = new ArrayDeque<>();
+            pending.push(this);
+            while (!pending.isEmpty()) {
+                DiskFolder folder = pending.pop();
+                order.push(folder); // popped below in reverse pre-order: children before parents
+                for (FileSystemItem child : folder.children()) {
+                    if (child instanceof DiskFolder) {
+                        Path childPath = ((DiskFolder) child).path;
+                        Aggregates cached = cache.totals(childPath);
+                        if (cached != null) {
+                            computed.put(childPath, cached);
+                        } else {
+                            pending.push((DiskFolder) child);
+                        }
+                    }
+                }
+            }
+            while (!order.isEmpty()) {
+                DiskFolder folder = order.pop();
+                int nodes = 1;
+                long files = 0;
+                long bytes = 0;
+                int height = 0;
+                // With a bounded cache this listing may be read from disk a second time
+                for (FileSystemItem child : folder.children()) {
+                    Aggregates totals = child instanceof DiskFolder
+                            ? computed.remove(((DiskFolder) child).path) : child.aggregates();
+                    nodes += totals.nodeCount;
+                    files += totals.fileCount;
+                    bytes += totals.totalSize;
+                    height = Math.max(height, totals.height + 1);
+                }
+                Aggregates aggregates = new Aggregates(nodes, files, bytes, height);
+                computed.put(folder.path, aggregates);
+                cache.putTotals(folder.path, aggregates);
+            }
+            return computed.get(path);
+        }
+        
+        // Children as they come off the directory stream; close the stream when done
+        public Stream<FileSystemItem> stream() {
+            List<FileSystemItem> cached = cache.get(path);
+            if (cached != null) {
+                return cached.stream();
+            }
+            try {
+                DirectoryStream<Path> entries = Files.newDirectoryStream(path);
+                return StreamSupport.stream(entries.spliterator(), false)
+                        .map(this::toItem)
+                        .onClose(() -> {
+                            try {
+                                entries.close();
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        });
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        
+        @Override
+        List<FileSystemItem> children() {
+            List<FileSystemItem> cached = cache.get(path);
+            if (cached == null) {
+                try (Stream<FileSystemItem> children = stream()) {
+                    cached = children.collect(Collectors.toList());
+                }
+                cache.put(path, cached);
+            }
+            return cached;
+        }
+        
+        private FileSystemItem toItem(Path entry) {
+            try {
+                // One attribute read per entry classifies it and gives its size
+                BasicFileAttributes attributes = Files.readAttributes(entry, BasicFileAttributes.class,
+                        LinkOption.NOFOLLOW_LINKS);
+                if (attributes.isDirectory()) {
+                    return new DiskFolder(entry, cache);
+                }
+                return new DiskFile(entry.getFileName().toString(), attributes.size());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+    
+    // Immutable flattened tree. Nodes are numbered in pre-order; structure lives in
+    // parent/first-child/next-sibling int arrays and names in one shared char pool
+    // (duplicate names stored once), so traversal touches only primitive arrays.
+    static final class CompactTree {
+        static final int NONE = -1;
+        
+        // Called once per node during traversal; nothing is allocated per node
+        interface NodeVisitor {
+            void visit(int node, int depth);
+        }
+        
+        private final int size;
+        private final int[] parent;
+        private final int[] firstChild;
+        private final int[] nextSibling;
+        private final int[] nameOffset;
+        private final int[] nameLength;
+        private final long[] fileSize;
+        private final BitSet folders;
+        private final char[] namePool;
+        
+        private CompactTree(Builder builder) {
+            size = builder.size;
+            parent = Arrays.copyOf(builder.parent, size);
+            firstChild = Arrays.copyOf(builder.firstChild, size);
+            nextSibling = Arrays.copyOf(builder.nextSibling, size);
+            nameOffset = Arrays.copyOf(builder.nameOffset, size);
+            nameLength = Arrays.copyOf(builder.nameLength, size);
+            fileSize = Arrays.copyOf(builder.fileSize, size);
+            folders = builder.folders;
+            namePool = Arrays.copyOf(builder.namePool, builder.poolLength);
+        }
+        
+        // Flattens an object composite; the root becomes node 0
+        public static CompactTree from(FileSystemItem root) {
+            Builder builder = new Builder();
+            Deque<FileSystemItem> items = new ArrayDeque<>();
+            Deque<Integer> parents = new ArrayDeque<>();
+            items.push(root);
+            parents.push(NONE);
+            int[] lastChild = new int[16];
+            while (!items.isEmpty()) {
+                FileSystemItem item = items.pop();
+                int parentNode = parents.pop();
+                int node = builder.add(item);
+                if (node >= lastChild.length) {
+                    lastChild = Arrays.copyOf(lastChild, lastChild.length * 2);
+                }
+                lastChild[node] = NONE;
+                if (parentNode != NONE) {
+                    builder.parent[node] = parentNode;
+                    if (lastChild[parentNode] == NONE) {
+                        builder.firstChild[parentNode] = node;
+                    } else {
+                        builder.nextSibling[lastChild[parentNode]] = node;
+                    }
+                    lastChild[parentNode] = node;
+                }
+                if (item instanceof Folder) {
+                    // Push in reverse so children are numbered in their original order
+                    List<FileSystemItem> children = ((Folder) item).children();
+                    for (int i = children.size() - 1; i >= 0; i--) {
+                        items.push(children.get(i));
+                        parents.push(node);
+                    }
+                }
+            }
+            return new CompactTree(builder);
+        }
+        
+        public int size() { return size; }
+        public int parent(int node) { return parent[node]; }
+        public int firstChild(int node) { return firstChild[node]; }
+        public int nextSibling(int node) { return nextSibling[node]; }
+        public boolean isFolder(int node) { return folders.get(node); }
+        public long fileSize(int node) { return fileSize[node]; }
+        
+        // Allocates a String - for occasional lookups, not for traversal
+        public String name(int node) { return new String(namePool, nameOffset[node], nameLength[node]); }
+        
+        // Pre-order walk driven purely by the link arrays, with no stack
+        public void forEach(NodeVisitor visitor) {
+            int node = 0;
+            int depth = 0;
+            while (node != NONE) {
+                visitor.visit(node, depth);
+                if (firstChild[node] != NONE) {
+                    node = firstChild[node];
+                    depth++;
+                    continue;
+                }
+                while (node != NONE && nextSibling[node] == NONE) {
+                    node = parent[node];
+                    depth--;
+                }
+                if (node != NONE) {
+                    node = nextSibling[node];
+                }
+            }
+        }
+        
+        // Same output as Folder.display(""), written straight from the char pool
+        public void display(Writer out) throws IOException {
+            char[] indent = new char[64];
+            Arrays.fill(indent, ' ');
+            char[][] holder = {indent};
+            try {
+                forEach((node, depth) -> {
+                    try {
+                        int width = depth * 2;
+                        if (width > holder[0].length) {
+                            holder[0] = new char[Math.max(width, holder[0].length * 2)];
+                            Arrays.fill(holder[0], ' ');
+                        }
+                        out.write(holder[0], 0, width);
+                        out.write(folders.get(node) ? "Folder: " : "File: ");
+                        out.write(namePool, nameOffset[node], nameLength[node]);
+                        out.write(System.lineSeparator());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            out.flush();
+        }
+        
+        // Rebuilds the object composite
+        public Folder toComposite() {
+            if (!folders.get(0)) {
+                throw new IllegalStateException("Root node is not a folder");
+            }
+            FileSystemItem[] items = new FileSystemItem[size];
+            for (int node = 0; node < size; node++) {
+                items[node] = folders.get(node) ? new Folder(name(node)) : new File(name(node), fileSize[node]);
+                if (parent[node] != NONE) {
+                    ((Folder) items[parent[node]]).add(items[node]);
+                }
+            }
+            return (Folder) items[0];
+        }
+        
+        public long estimatedBytes() {
+            return (long) size * (5 * Integer.BYTES + Long.BYTES) + folders.size() / 8 + (long) namePool.length * Character.BYTES;
+        }
+        
+        private static final class Builder {
+            private int size;
+            private int[] parent = new int[1024];
+            private int[] firstChild = new int[1024];
+            private int[] nextSibling = new int[1024];
+            private int[] nameOffset = new int[1024];
+            private int[] nameLength = new int[1024];
+            private long[] fileSize = new long[1024];
+            private final BitSet folders = new BitSet();
+            private char[] namePool = new char[4096];
+            private int poolLength;
+            private final Map<String, Integer> pooledNames = new HashMap<>();
+            
+            int add(FileSystemItem item) {
+                if (size == parent.length) {
+                    int capacity = size * 2;
+                    parent = Arrays.copyOf(parent, capacity);
+                    firstChild = Arrays.copyOf(firstChild, capacity);
+                    nextSibling = Arrays.copyOf(nextSibling, capacity);
+                    nameOffset = Arrays.copyOf(nameOffset, capacity);
+                    nameLength = Arrays.copyOf(nameLength, capacity);
+                    fileSize = Arrays.copyOf(fileSize, capacity);
+                }
+                int node = size++;
+                String name = item.getName();
+                Integer offset = pooledNames.get(name);
+                if (offset == null) {
+                    if (poolLength + name.length() > namePool.length) {
+                        namePool = Arrays.copyOf(namePool, Math.max(namePool.length * 2, poolLength + name.length()));
+                    }
+                    name.getChars(0, name.length(), namePool, poolLength);
+                    offset = poolLength;
+                    poolLength += name.length();
+                    pooledNames.put(name, offset);
+                }
+                parent[node] = NONE;
+                firstChild[node] = NONE;
+                nextSibling[node] = NONE;
+                nameOffset[node] = offset;
+                nameLength[node] = name.length();
+                if (item instanceof Folder) {
+                    folders.set(node);
+                } else {
+                    fileSize[node] = ((File) item).getSize();
+                }
+                return node;
+            }
+        }
+    }
+    
+    // Aggregate over a subtree: counts, total size, nodes per depth and matching items
+    // (in depth-first order). Partial results from sibling subtrees merge in child order.
+    static class TreeStats {
+        private long fileCount;
+        private long folderCount;
+        private long totalSize;
+        private long[] depthHistogram = new long[8];
+        // Matches are kept as a list of segments so merging never copies them
+        private final List<List<FileSystemItem>> matchSegments = new ArrayList<>();
+        private List<FileSystemItem> matchTail = new ArrayList<>();
+        private long matchCount;
+        
+        void countNode(FileSystemItem item, int depth, Predicate<? super FileSystemItem> filter) {
+            if (item instanceof File) {
+                fileCount++;
+                totalSize += ((File) item).getSize();
+            } else {
+                folderCount++;
+            }
+            if (depth >= depthHistogram.length) {
+                depthHistogram = Arrays.copyOf(depthHistogram, Math.max(depth + 1, depthHistogram.length * 2));
+            }
+            depthHistogram[depth]++;
+            if (filter.test(item)) {
+                matchTail.add(item);
+                matchCount++;
+            }
+        }
+        
+        void merge(TreeStats other) {
+            fileCount += other.fileCount;
+            folderCount += other.folderCount;
+            totalSize += other.totalSize;
+            if (other.depthHistogram.length > depthHistogram.length) {
+                depthHistogram = Arrays.copyOf(depthHistogram, other.depthHistogram.length);
+            }
+            for (int depth = 0; depth < other.depthHistogram.length; depth++) {
+                depthHistogram[depth] += other.depthHistogram[depth];
+            }
+            if (!matchTail.isEmpty()) {
+                matchSegments.add(matchTail);
+                matchTail = new ArrayList<>();
+            }
+            matchSegments.addAll(other.matchSegments);
+            if (!other.matchTail.isEmpty()) {
+                matchSegments.add(other.matchTail);
+            }
+            matchCount += other.matchCount;
+        }
+        
+        public long getFileCount() { return fileCount; }
+        public long getFolderCount() { return folderCount; }
+        public long getTotalSize() { return totalSize; }
+        public long getMatchCount() { return matchCount; }
+        
+        public List<FileSystemItem> getMatches() {
+            List<FileSystemItem> matches = new ArrayList<>((int) matchCount);
+            for (List<FileSystemItem> segment : matchSegments) {
+                matches.addAll(segment);
+            }
+            matches.addAll(matchTail);
+            return matches;
+        }
+        
+        public long[] getDepthHistogram() {
+            int maxDepth = depthHistogram.length - 1;
+            while (maxDepth > 0 && depthHistogram[maxDepth] == 0) {
+                maxDepth--;
+            }
+            return Arrays.copyOf(depthHistogram, maxDepth + 1);
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof TreeStats)) {
+                return false;
+            }
+            TreeStats other = (TreeStats) o;
+            return fileCount == other.fileCount && folderCount == other.folderCount
+                    && totalSize == other.totalSize
+                    && Arrays.equals(getDepthHistogram(), other.getDepthHistogram())
+                    && matchCount == other.matchCount
+                    && getMatches().equals(other.getMatches());
+        }
+        
+        @Override
+        public int hashCode() { return Objects.hash(fileCount, folderCount, totalSize, matchCount); }
+        
+        @Override
+        public String toString() {
+            return "files=" + fileCount + ", folders=" + folderCount + ", bytes=" + totalSize
+                    + ", depths=" + Arrays.toString(getDepthHistogram()) + ", matches=" + matchCount;
+        }
+    }
+    
+    // Sequential and fork-join traversal producing the same TreeStats
+    static final class TreeTraversal {
+        private TreeTraversal() {}
+        
+        public static TreeStats sequential(FileSystemItem root, Predicate<? super FileSystemItem> filter) {
+            TreeStats stats = new TreeStats();
+            walk(root, 0, filter, stats, NO_SPLIT);
+            return stats;
+        }
+        
+        public static TreeStats parallel(FileSystemItem root, Predicate<? super FileSystemItem> filter,
+                                         ForkJoinPool pool, int splitThreshold) {
+            return pool.invoke(new AggregateTask(root, 0, filter, splitThreshold));
+        }
+        
+        private static final int NO_SPLIT = -1;
+        
+        // Pre-order walk on an explicit stack, so tree depth is bounded by heap, not the call
+        // stack. With a split threshold, a folder with two or more child subtrees above it forks
+        // those as tasks; each task's marker sits on the stack in its child's place and is joined
+        // when the walk reaches it, so merged results keep depth-first order. Single large
+        // children (deep chains) are walked inline rather than forked, which keeps nested
+        // joins to the number of real branch points.
+        private static void walk(FileSystemItem root, int rootDepth, Predicate<? super FileSystemItem> filter,
+                                 TreeStats stats, int splitThreshold) {
+            Object[] pending = new Object[64];
+            int[] depths = new int[64];
+            int top = 0;
+            pending[top] = root;
+            depths[top++] = rootDepth;
+            while (top > 0) {
+                Object next = pending[--top];
+                int depth = depths[top];
+                pending[top] = null;
+                if (next instanceof AggregateTask) {
+                    stats.merge(((AggregateTask) next).join());
+                    continue;
+                }
+                FileSystemItem item = (FileSystemItem) next;
+                stats.countNode(item, depth, filter);
+                if (!(item instanceof Folder)) {
+                    continue;
+                }
+                List<FileSystemItem> children = ((Folder) item).children();
+                boolean split = splitThreshold != NO_SPLIT && largeChildren(children, splitThreshold) >= 2;
+                if (top + children.size() > pending.length) {
+                    int capacity = Math.max(pending.length * 2, top + children.size());
+                    pending = Arrays.copyOf(pending, capacity);
+                    depths = Arrays.copyOf(depths, capacity);
+                }
+                // Pushed in reverse so the first child is visited first
+                for (int i = children.size() - 1; i >= 0; i--) {
+                    FileSystemItem child = children.get(i);
+                    if (split && child instanceof Folder && child.nodeCount() > splitThreshold) {
+                        AggregateTask task = new AggregateTask(child, depth + 1, filter, splitThreshold);
+                        task.fork();
+                        pending[top] = task;
+                    } else {
+                        pending[top] = child;
+                    }
+                    depths[top++] = depth + 1;
+                }
+            }
+        }
+        
+        private static int largeChildren(List<FileSystemItem> children, int splitThreshold) {
+            int large = 0;
+            for (FileSystemItem child : children) {
+                if (child instanceof Folder && child.nodeCount() > splitThreshold && ++large == 2) {
+                    break;
+                }
+            }
+            return large;
+        }
+        
+        private static final class AggregateTask extends RecursiveTask<TreeStats> {
+            private static final long serialVersionUID = 1L;
+            private final FileSystemItem item;
+            private final int depth;
+            private final Predicate<? super FileSystemItem> filter;
+            private final int splitThreshold;
+            
+            AggregateTask(FileSystemItem item, int depth, Predicate<? super FileSystemItem> filter, int splitThreshold) {
+                this.item = item;
+                this.depth = depth;
+                this.filter = filter;
+                this.splitThreshold = splitThreshold;
+            }
+            
+            @Override
+            protected TreeStats compute() {
+                TreeStats stats = new TreeStats();
+                walk(item, depth, filter, stats, splitThreshold);
+                return stats;
+            }
+        }
+    }
+    
     public static void demonstrate() {
         System.out.println("\n--- Composite Pattern ---");
         
@@ -55,5 +1009,367 @@ public class CompositeDemo {
         
         root.add(subFolder);
         root.display("");
+        
+        TreeStats stats = TreeTraversal.sequential(root, item -> item.getName().endsWith(".pdf"));
+        System.out.println("Aggregate: " + stats);
+    }
+    
+    // Large-tree traversal, loading and lookup timings; run from BenchmarkApp
+    public static void benchmark() {
+        System.out.println("\n--- Composite Pattern benchmarks ---");
+        benchmarkTraversal();
+        compareDiskLoading();
+        compareCompactTree(5_000_000);
+        compareAggregateQueries();
+        comparePathLookups();
+    }
+    
+    // Lookup latency by folder width, indexed vs linear scan, plus index memory overhead
+    private static void comparePathLookups() {
+        Folder root = sampleTree();
+        System.out.println("resolve(documents/doc2.pdf) -> " + root.resolve("documents/doc2.pdf").map(FileSystemItem::getName).orElse("missing")
+                + ", glob(**/*.pdf) -> " + root.glob("**/*.pdf"));
+        
+        Random random = new Random(9);
+        for (int width : new int[] {10, 1_000, 100_000}) {
+            Folder wide = new Folder("wide");
+            List<FileSystemItem> plain = new ArrayList<>(width);
+            String[] names = new String[width];
+            for (int i = 0; i < width; i++) {
+                names[i] = "entry" + i;
+                File file = new File(names[i], i);
+                wide.add(file);
+                plain.add(file);
+            }
+            int lookups = width >= 100_000 ? 2_000 : 200_000;
+            long found = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < lookups; i++) {
+                found += wide.resolve(names[random.nextInt(width)]).isPresent() ? 1 : 0;
+            }
+            long indexedNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < lookups; i++) {
+                String name = names[random.nextInt(width)];
+                for (FileSystemItem item : plain) {
+                    if (item.getName().equals(name)) {
+                        found++;
+                        break;
+                    }
+                }
+            }
+            long scanNanos = System.nanoTime() - start;
+            System.out.printf("  width %6d: resolve %7.0f ns, linear scan %9.0f ns per lookup (found %d)%n",
+                    width, (double) indexedNanos / lookups, (double) scanNanos / lookups, found);
+        }
+        
+        int width = 100_000;
+        File[] files = new File[width];
+        for (int i = 0; i < width; i++) {
+            files[i] = new File("entry" + i, i);
+        }
+        long before = usedHeap();
+        List<FileSystemItem> listOnly = new ArrayList<>(Arrays.asList(files));
+        long listBytes = usedHeap() - before;
+        before = usedHeap();
+        Folder indexed = new Folder("indexed");
+        for (File file : files) {
+            indexed.add(file);
+        }
+        long folderBytes = usedHeap() - before;
+        System.out.printf("  index overhead at width %d: %.1f bytes per child (list alone %.1f)%n", width,
+                (double) (folderBytes - listBytes) / width, (double) listBytes / width);
+        listOnly.clear();
+    }
+    
+    // O(1) cached totals vs a full rewalk on a large tree under constant mutation
+    private static void compareAggregateQueries() {
+        Folder root = syntheticTree(1_000_000, 16);
+        List<Folder> folders = new ArrayList<>();
+        collectFolders(root, folders);
+        Random random = new Random(3);
+        
+        int mutations = 200;
+        long cachedNanos = 0;
+        long rewalkNanos = 0;
+        boolean consistent = true;
+        for (int i = 0; i < mutations; i++) {
+            Folder target = folders.get(random.nextInt(folders.size()));
+            File file = new File("added" + i, 4096);
+            target.add(file);
+            if ((i & 1) == 0) {
+                target.remove(file);
+            }
+            
+            long start = System.nanoTime();
+            Aggregates cached = root.aggregates();
+            cachedNanos += System.nanoTime() - start;
+            start = System.nanoTime();
+            TreeStats walked = TreeTraversal.sequential(root, item -> false);
+            rewalkNanos += System.nanoTime() - start;
+            consistent &= cached.fileCount == walked.getFileCount() && cached.totalSize == walked.getTotalSize()
+                    && cached.height == walked.getDepthHistogram().length - 1;
+        }
+        System.out.printf("Aggregate query after mutation (1M nodes): cached %.0f ns, rewalk %.1f ms, match=%b%n",
+                (double) cachedNanos / mutations, rewalkNanos / 1e6 / mutations, consistent);
+        checkConcurrentReads();
+    }
+    
+    // A reader spinning on the root never sees a half-applied update
+    private static void checkConcurrentReads() {
+        Folder root = new Folder("root");
+        Folder[] subFolders = new Folder[8];
+        for (int i = 0; i < subFolders.length; i++) {
+            subFolders[i] = new Folder("dir" + i);
+            root.add(subFolders[i]);
+        }
+        long[] inconsistent = new long[1];
+        long[] reads = new long[1];
+        Thread reader = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                // Every file is 100 bytes, so size must track the count exactly
+                Aggregates snapshot = root.aggregates();
+                if (snapshot.totalSize != snapshot.fileCount * 100) {
+                    inconsistent[0]++;
+                }
+                reads[0]++;
+            }
+        });
+        reader.start();
+        Random random = new Random(5);
+        Deque<File> added = new ArrayDeque<>();
+        Deque<Folder> owners = new ArrayDeque<>();
+        for (int i = 0; i < 200_000; i++) {
+            if (added.size() > 1000 && random.nextBoolean()) {
+                owners.poll().remove(added.poll());
+            } else {
+                Folder owner = subFolders[random.nextInt(subFolders.length)];
+                File file = new File("f" + i, 100);
+                owner.add(file);
+                added.add(file);
+                owners.add(owner);
+            }
+        }
+        reader.interrupt();
+        try {
+            reader.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("Concurrent reads: " + reads[0] + ", inconsistent: " + inconsistent[0]
+                + ", final " + root.aggregates());
+    }
+    
+    private static void collectFolders(Folder root, List<Folder> folders) {
+        Deque<Folder> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Folder folder = pending.pop();
+            folders.add(folder);
+            for (FileSystemItem child : folder.children()) {
+                if (child instanceof Folder) {
+                    pending.push((Folder) child);
+                }
+            }
+        }
+    }
+    
+    // Heap per node and traversal speed: object composite vs flattened arrays
+    private static void compareCompactTree(int nodes) {
+        CompactTree small = CompactTree.from(sampleTree());
+        try {
+            System.out.println("Compact display:");
+            small.display(new BufferedWriter(new OutputStreamWriter(System.out)));
+        } catch (IOException e) {
+            System.out.println("Display failed: " + e.getMessage());
+        }
+        System.out.println("Round trip through composite keeps " + CompactTree.from(small.toComposite()).size()
+                + " of " + small.size() + " nodes");
+        
+        long before = usedHeap();
+        Folder objects = syntheticTree(nodes, 16);
+        long objectBytes = usedHeap() - before;
+        before = usedHeap();
+        CompactTree compact = CompactTree.from(objects);
+        long compactBytes = usedHeap() - before;
+        
+        long objectNanos = Long.MAX_VALUE;
+        long compactNanos = Long.MAX_VALUE;
+        long objectTotal = 0;
+        long[] compactTotal = new long[1];
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            objectTotal = TreeTraversal.sequential(objects, item -> false).getTotalSize();
+            objectNanos = Math.min(objectNanos, System.nanoTime() - start);
+            compactTotal[0] = 0;
+            start = System.nanoTime();
+            compact.forEach((node, depth) -> compactTotal[0] += compact.fileSize(node));
+            compactNanos = Math.min(compactNanos, System.nanoTime() - start);
+        }
+        
+        System.out.printf("%d nodes: objects %.1f bytes/node, %d ms walk; compact %.1f bytes/node, %d ms walk; sizes match=%b%n",
+                nodes, (double) objectBytes / nodes, objectNanos / 1_000_000,
+                (double) compactBytes / nodes, compactNanos / 1_000_000, objectTotal == compactTotal[0]);
+    }
+    
+    static Folder sampleTree() {
+        Folder root = new Folder("root");
+        root.add(new File("file1.txt"));
+        Folder subFolder = new Folder("documents");
+        subFolder.add(new File("doc1.pdf"));
+        subFolder.add(new File("doc2.pdf"));
+        root.add(subFolder);
+        return root;
+    }
+    
+    // Lazy vs eager loading of a generated directory tree
+    private static void compareDiskLoading() {
+        Path root = null;
+        try {
+            root = Files.createTempDirectory("composite-tree");
+            Path wide = Files.createDirectory(root.resolve("wide"));
+            for (int i = 0; i < 20_000; i++) {
+                Files.write(wide.resolve("entry" + i + ".txt"), new byte[i % 64]);
+            }
+            for (int d = 0; d < 20; d++) {
+                Path dir = Files.createDirectory(root.resolve("dir" + d));
+                for (int i = 0; i < 500; i++) {
+                    Files.createFile(dir.resolve("file" + i + ".pdf"));
+                }
+            }
+            
+            // Lazy: only the directory entries up to the first match are read
+            long heapBefore = usedHeap();
+            long start = System.nanoTime();
+            Optional<FileSystemItem> first;
+            try (Stream<FileSystemItem> entries = DiskFolder.open(root.resolve("wide"), new DirectoryCache(5_000)).stream()) {
+                first = entries.filter(item -> item.getName().endsWith(".txt")).findFirst();
+            }
+            long lazyMicros = (System.nanoTime() - start) / 1_000;
+            long lazyHeap = usedHeap() - heapBefore;
+            
+            // Eager: every listing materialized and retained
+            heapBefore = usedHeap();
+            start = System.nanoTime();
+            DirectoryCache unbounded = new DirectoryCache(Integer.MAX_VALUE);
+            DiskFolder eagerRoot = DiskFolder.open(root, unbounded);
+            TreeStats stats = TreeTraversal.sequential(eagerRoot, item -> false);
+            long eagerMicros = (System.nanoTime() - start) / 1_000;
+            long eagerHeap = usedHeap() - heapBefore;
+            
+            // Bounded cache: a full walk keeps at most 5000 entries resident
+            DirectoryCache bounded = new DirectoryCache(5_000);
+            TreeTraversal.sequential(DiskFolder.open(root, bounded), item -> false);
+            
+            System.out.printf("Disk tree (%d files): lazy first result %s in %d us / %d KB, eager %d us / %d KB%n",
+                    stats.getFileCount(), first.map(FileSystemItem::getName).orElse("none"), lazyMicros,
+                    Math.max(0, lazyHeap) / 1024, eagerMicros, Math.max(0, eagerHeap) / 1024);
+            System.out.printf("  bounded cache: %d entries resident, %d evictions, eager cache %d entries%n",
+                    bounded.getCachedEntries(), bounded.getEvictionCount(), unbounded.getCachedEntries());
+            System.out.println("  disk aggregates: " + eagerRoot.aggregates() + ", parallel walk identical="
+                    + TreeTraversal.parallel(eagerRoot, item -> false, ForkJoinPool.commonPool(), 1_000).equals(stats));
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println("Disk tree demo skipped: " + e.getMessage());
+        } finally {
+            if (root != null) {
+                deleteRecursively(root);
+            }
+        }
+    }
+    
+    private static void deleteRecursively(Path root) {
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    Files.delete(file);
+                    return FileVisitResult.CONTINUE;
+                }
+                
+                @Override
+                public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+                    Files.delete(dir);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            System.out.println("Could not clean up " + root + ": " + e.getMessage());
+        }
+    }
+    
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+    
+    // Builds a synthetic tree of about nodeCount nodes with the given fan-out
+    static Folder syntheticTree(int nodeCount, int fanOut) {
+        String[] fileNames = new String[fanOut];
+        for (int i = 0; i < fanOut; i++) {
+            fileNames[i] = "file" + i + (i % 3 == 0 ? ".pdf" : ".txt");
+        }
+        Folder root = new Folder("root");
+        // Breadth-first: each folder gets fanOut - 1 files and one subfolder per extra slot
+        Deque<Folder> frontier = new ArrayDeque<>();
+        frontier.add(root);
+        int created = 1;
+        while (created < nodeCount && !frontier.isEmpty()) {
+            Folder folder = frontier.poll();
+            for (int i = 0; i < fanOut && created < nodeCount; i++, created++) {
+                if (i % 4 == 0) {
+                    Folder child = new Folder("dir" + i);
+                    folder.add(child);
+                    frontier.add(child);
+                } else {
+                    folder.add(new File(fileNames[i], i * 100L));
+                }
+            }
+        }
+        return root;
+    }
+    
+    // Sequential vs fork-join aggregation on large synthetic trees
+    private static void benchmarkTraversal() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        Predicate<FileSystemItem> pdfs = item -> item.getName().endsWith(".pdf");
+        System.out.println("Traversal of 10M-node trees (" + cores + " cores):");
+        ForkJoinPool pool = new ForkJoinPool(cores);
+        for (int fanOut : new int[] {8, 64}) {
+            Folder root = syntheticTree(10_000_000, fanOut);
+            TreeStats sequential = null;
+            TreeStats parallel = null;
+            long sequentialMillis = Long.MAX_VALUE;
+            long parallelMillis = Long.MAX_VALUE;
+            // Best of three, so JIT warm-up does not count against either side
+            for (int round = 0; round < 3; round++) {
+                long start = System.nanoTime();
+                sequential = TreeTraversal.sequential(root, pdfs);
+                sequentialMillis = Math.min(sequentialMillis, (System.nanoTime() - start) / 1_000_000);
+                start = System.nanoTime();
+                parallel = TreeTraversal.parallel(root, pdfs, pool, 10_000);
+                parallelMillis = Math.min(parallelMillis, (System.nanoTime() - start) / 1_000_000);
+            }
+            System.out.printf("  fan-out %2d, depth %d: sequential %d ms, fork-join %d ms, identical=%b%n",
+                    fanOut, sequential.getDepthHistogram().length - 1, sequentialMillis, parallelMillis,
+                    sequential.equals(parallel));
+        }
+        
+        // A 20,000-deep folder chain with a file at each level walks without deep recursion
+        Folder chain = new Folder("chain");
+        Folder tip = chain;
+        for (int depth = 0; depth < 20_000; depth++) {
+            Folder next = new Folder("level" + depth);
+            tip.add(new File("file" + depth + ".pdf", depth));
+            tip.add(next);
+            tip = next;
+        }
+        TreeStats sequential = TreeTraversal.sequential(chain, pdfs);
+        TreeStats parallel = TreeTraversal.parallel(chain, pdfs, pool, 1_000);
+        System.out.printf("  chain of depth %d: %d matches, identical=%b%n",
+                sequential.getDepthHistogram().length - 1, sequential.getMatchCount(), sequential.equals(parallel));
+        pool.shutdown();
     }
 }
\ No newline at end of file
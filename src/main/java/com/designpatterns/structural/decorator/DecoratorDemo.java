@@ -1,5 +1,26 @@
 package com.designpatterns.structural.decorator;
 
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * Decorator Pattern - Adds behavior to objects dynamically without altering structure.
  * Provides flexible alternative to subclassing for extending functionality.
@@ -15,7 +36,7 @@ public class DecoratorDemo {
     // Concrete Component - base object that can be decorated
     static class SimpleCoffee implements Coffee {
         public String getDescription() { return "Simple coffee"; }
-        public double getCost() { return 2.0; }
+        public double getCost() { return AddOn.BASE_CENTS / 100.0; }
     }
     
     // Base Decorator - maintains reference to component and delegates calls
@@ -29,6 +50,15 @@ public class DecoratorDemo {
         // Default behavior: delegate to wrapped component
         public String getDescription() { return coffee.getDescription(); }
         public double getCost() { return coffee.getCost(); }
+        
+        // This decorator's own contribution, used by fusion; null adds nothing to the description.
+        // A subclass that overrides getDescription()/getCost() but not these is never fused
+        // through them - see FusedCoffee.
+        protected String addOn() { return null; }
+        protected double addCost(double innerCost) { return innerCost; }
+        
+        // Collapses the whole stack below and including this decorator into one flat object
+        public FusedCoffee freeze() { return FusedCoffee.freeze(this); }
     }
     
     // Concrete Decorator 1 - adds milk functionality
@@ -37,13 +67,16 @@ public class DecoratorDemo {
         
         // Extends behavior: adds milk to description
         public String getDescription() { 
-            return coffee.getDescription() + ", milk"; 
+            return coffee.getDescription() + ", " + addOn(); 
         }
         
         // Extends behavior: adds milk cost
         public double getCost() { 
-            return coffee.getCost() + 0.5; 
+            return addCost(coffee.getCost()); 
         }
+        
+        protected String addOn() { return "milk"; }
+        protected double addCost(double innerCost) { return innerCost + AddOn.MILK.dollars(); }
     }
     
     // Concrete Decorator 2 - adds sugar functionality
@@ -52,12 +85,456 @@ public class DecoratorDemo {
         
         // Extends behavior: adds sugar to description
         public String getDescription() { 
-            return coffee.getDescription() + ", sugar"; 
+            return coffee.getDescription() + ", " + addOn(); 
         }
         
         // Extends behavior: adds sugar cost
         public double getCost() { 
-            return coffee.getCost() + 0.2; 
+            return addCost(coffee.getCost()); 
+        }
+        
+        protected String addOn() { return "sugar"; }
+        protected double addCost(double innerCost) { return innerCost + AddOn.SUGAR.dollars(); }
+    }
+    
+    // Fused decorator stack - cost, description and add-ons computed once in a single
+    // inside-out pass, applying each decorator's contribution in the same order as the
+    // recursive chain, so results are identical (including floating-point rounding)
+    static final class FusedCoffee implements Coffee {
+        private final String description;
+        private final double cost;
+        private final List<String> addOns;
+        
+        private FusedCoffee(String description, double cost, List<String> addOns) {
+            this.description = description;
+            this.cost = cost;
+            this.addOns = addOns;
+        }
+        
+        // A decorator class is fused through addOn()/addCost() only if it declares them at least
+        // as far down its hierarchy as getDescription()/getCost(). One that only overrides the
+        // latter, the classic way, becomes the opaque base of the fused part and is queried
+        // through its own chain, so the result always matches the unfused stack.
+        private static final ClassValue<Boolean> FUSABLE = new ClassValue<Boolean>() {
+            @Override
+            protected Boolean computeValue(Class<?> type) {
+                return declaredBelow(type, "addOn", "getDescription") && declaredBelow(type, "addCost", "getCost");
+            }
+        };
+        
+        private static boolean declaredBelow(Class<?> type, String contribution, String query) {
+            Class<?>[] contributionParameters = contribution.equals("addCost") ? new Class<?>[] {double.class} : new Class<?>[0];
+            return declaringClass(type, query).isAssignableFrom(declaringClass(type, contribution, contributionParameters));
+        }
+        
+        private static Class<?> declaringClass(Class<?> type, String name, Class<?>... parameters) {
+            for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+                try {
+                    current.getDeclaredMethod(name, parameters);
+                    return current;
+                } catch (NoSuchMethodException e) {
+                    // keep looking in the superclass
+                }
+            }
+            throw new IllegalStateException(type + " has no method " + name);
+        }
+        
+        public static FusedCoffee freeze(Coffee coffee) {
+            if (coffee instanceof FusedCoffee) {
+                return (FusedCoffee) coffee;
+            }
+            // Unwrap iteratively, so deep stacks cannot overflow the call stack
+            List<CoffeeDecorator> decorators = new ArrayList<>();
+            Coffee base = coffee;
+            while (base instanceof CoffeeDecorator && FUSABLE.get(base.getClass())) {
+                decorators.add((CoffeeDecorator) base);
+                base = ((CoffeeDecorator) base).coffee;
+            }
+            if (base instanceof LazyFusedCoffee) {
+                base = ((LazyFusedCoffee) base).fused();
+            }
+            
+            StringBuilder description = new StringBuilder(base.getDescription());
+            double cost = base.getCost();
+            List<String> addOns = new ArrayList<>(base instanceof FusedCoffee ? ((FusedCoffee) base).addOns : List.of());
+            for (int i = decorators.size() - 1; i >= 0; i--) {
+                CoffeeDecorator decorator = decorators.get(i);
+                String addOn = decorator.addOn();
+                if (addOn != null) {
+                    description.append(", ").append(addOn);
+                    addOns.add(addOn);
+                }
+                cost = decorator.addCost(cost);
+            }
+            return new FusedCoffee(description.toString(), cost, Collections.unmodifiableList(addOns));
+        }
+        
+        // View that fuses the stack on its first query
+        public static Coffee lazy(Coffee coffee) { return new LazyFusedCoffee(coffee); }
+        
+        public String getDescription() { return description; }
+        public double getCost() { return cost; }
+        // Add-ons of the fused decorators; those inside an opaque base are not listed
+        public List<String> getAddOns() { return addOns; }
+    }
+    
+    static final class LazyFusedCoffee implements Coffee {
+        private final Coffee stack;
+        private volatile FusedCoffee fused;
+        
+        LazyFusedCoffee(Coffee stack) { this.stack = stack; }
+        
+        // Racing first queries may both fuse; the results are identical and immutable
+        FusedCoffee fused() {
+            FusedCoffee result = fused;
+            if (result == null) {
+                result = FusedCoffee.freeze(stack);
+                fused = result;
+            }
+            return result;
+        }
+        
+        public String getDescription() { return fused().getDescription(); }
+        public double getCost() { return fused().getCost(); }
+    }
+    
+    // Add-on catalogue shared by the object decorators and the bulk engine; prices in cents
+    enum AddOn {
+        MILK("milk", 50) { Coffee decorate(Coffee coffee) { return new MilkDecorator(coffee); } },
+        SUGAR("sugar", 20) { Coffee decorate(Coffee coffee) { return new SugarDecorator(coffee); } };
+        
+        static final long BASE_CENTS = 200; // SimpleCoffee
+        private static final AddOn[] CODES = values();
+        
+        final String label;
+        final long cents;
+        
+        AddOn(String label, long cents) {
+            this.label = label;
+            this.cents = cents;
+        }
+        
+        abstract Coffee decorate(Coffee coffee);
+        
+        // Price for the double-based object decorators, derived from the same cents
+        double dollars() { return cents / 100.0; }
+        
+        static AddOn ofCode(int code) { return CODES[code]; }
+    }
+    
+    // Orders as add-on code runs: order i owns codes[offsets[i] .. offsets[i + 1])
+    static final class OrderBatch {
+        final byte[] codes;
+        final int[] offsets;
+        
+        OrderBatch(byte[] codes, int[] offsets) {
+            this.codes = codes;
+            this.offsets = offsets;
+        }
+        
+        int size() { return offsets.length - 1; }
+        
+        // Rebuilds order i as an object decorator chain
+        Coffee toCoffee(int order) {
+            Coffee coffee = new SimpleCoffee();
+            for (int i = offsets[order]; i < offsets[order + 1]; i++) {
+                coffee = AddOn.ofCode(codes[i]).decorate(coffee);
+            }
+            return coffee;
+        }
+        
+        static OrderBatch random(int orders, int maxAddOns, long seed) {
+            SplittableRandom random = new SplittableRandom(seed);
+            int[] offsets = new int[orders + 1];
+            for (int i = 0; i < orders; i++) {
+                offsets[i + 1] = offsets[i] + random.nextInt(maxAddOns + 1);
+            }
+            byte[] codes = new byte[offsets[orders]];
+            int addOnKinds = AddOn.CODES.length;
+            for (int i = 0; i < codes.length; i++) {
+                codes[i] = (byte) random.nextInt(addOnKinds);
+            }
+            return new OrderBatch(codes, offsets);
+        }
+    }
+    
+    // Bulk pricing in fixed-point cents over primitive arrays, split across a fork-join pool
+    static final class BulkPricingEngine {
+        private static final int SPLIT_THRESHOLD = 64 * 1024;
+        
+        private final long[] priceByCode;
+        private final ForkJoinPool pool;
+        
+        BulkPricingEngine(ForkJoinPool pool) {
+            this.pool = pool;
+            AddOn[] addOns = AddOn.values();
+            priceByCode = new long[addOns.length];
+            for (AddOn addOn : addOns) {
+                priceByCode[addOn.ordinal()] = addOn.cents;
+            }
+        }
+        
+        long[] price(OrderBatch batch) {
+            long[] totals = new long[batch.size()];
+            pool.invoke(new PriceTask(batch, totals, 0, totals.length));
+            return totals;
+        }
+        
+        private void priceRange(OrderBatch batch, long[] totals, int from, int to) {
+            byte[] codes = batch.codes;
+            int[] offsets = batch.offsets;
+            long[] prices = priceByCode;
+            for (int order = from; order < to; order++) {
+                long total = AddOn.BASE_CENTS;
+                for (int i = offsets[order], end = offsets[order + 1]; i < end; i++) {
+                    total += prices[codes[i]];
+                }
+                totals[order] = total;
+            }
+        }
+        
+        private final class PriceTask extends RecursiveAction {
+            private static final long serialVersionUID = 1L;
+            private final OrderBatch batch;
+            private final long[] totals;
+            private final int from, to;
+            
+            PriceTask(OrderBatch batch, long[] totals, int from, int to) {
+                this.batch = batch;
+                this.totals = totals;
+                this.from = from;
+                this.to = to;
+            }
+            
+            @Override
+            protected void compute() {
+                if (to - from <= SPLIT_THRESHOLD) {
+                    priceRange(batch, totals, from, to);
+                    return;
+                }
+                int mid = (from + to) >>> 1;
+                invokeAll(new PriceTask(batch, totals, from, mid), new PriceTask(batch, totals, mid, to));
+            }
+        }
+    }
+    
+    // Lock-free log-linear latency histogram: exact below 8 ns, then 8 linear sub-buckets
+    // per power of two (<= 12.5% relative error); recording never allocates
+    static final class LatencyHistogram {
+        private static final int SUB_BITS = 3;
+        private static final int SUB_BUCKETS = 1 << SUB_BITS;
+        private static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+        
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        
+        void record(long nanos) {
+            counts.incrementAndGet(indexOf(Math.max(0, nanos)));
+        }
+        
+        static int indexOf(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int shift = exponent - SUB_BITS;
+            return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+        }
+        
+        // Largest value that maps to the given bucket
+        static long upperBound(int index) {
+            if (index < SUB_BUCKETS) {
+                return index;
+            }
+            int shift = index / SUB_BUCKETS - 1;
+            long sub = index % SUB_BUCKETS;
+            return ((SUB_BUCKETS + sub + 1) << shift) - 1;
+        }
+        
+        // Buckets are drained one by one, so records racing with the export land in this or the next snapshot
+        HistogramSnapshot snapshotAndReset() {
+            long[] drained = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                if (counts.get(i) != 0) {
+                    drained[i] = counts.getAndSet(i, 0);
+                }
+            }
+            return new HistogramSnapshot(drained);
+        }
+    }
+    
+    static final class HistogramSnapshot {
+        private final long[] counts;
+        private final long total;
+        
+        HistogramSnapshot(long[] counts) {
+            this.counts = counts;
+            long sum = 0;
+            for (long count : counts) {
+                sum += count;
+            }
+            this.total = sum;
+        }
+        
+        long count() { return total; }
+        
+        // Upper bound of the bucket holding the given quantile, in nanoseconds
+        long percentile(double quantile) {
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * total));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return LatencyHistogram.upperBound(i);
+                }
+            }
+            return LatencyHistogram.upperBound(counts.length - 1);
+        }
+    }
+    
+    // Per-method counters; LongAdder keeps concurrent increments off a shared cache line
+    static final class MethodStats {
+        final LongAdder calls = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LatencyHistogram latency = new LatencyHistogram();
+    }
+    
+    static final class MethodSnapshot {
+        final String method;
+        final long calls;
+        final long errors;
+        final HistogramSnapshot latency;
+        
+        MethodSnapshot(String method, long calls, long errors, HistogramSnapshot latency) {
+            this.method = method;
+            this.calls = calls;
+            this.errors = errors;
+            this.latency = latency;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("%s calls=%d errors=%d p50=%dns p99=%dns p999=%dns", method, calls, errors,
+                    latency.percentile(0.5), latency.percentile(0.99), latency.percentile(0.999));
+        }
+    }
+    
+    // Instrumentation decorator for any interface, built on a dynamic proxy. Each method gets
+    // its own handler with its stats bound in, and latency is timed on one call in SAMPLE_RATE:
+    // calls and errors stay exact, the histogram holds a uniform sample of the latencies
+    static final class Instrumentation {
+        static final int SAMPLE_RATE = 16;
+        
+        // Keyed by Method, so overloads and same-named interfaces stay separate
+        private final Map<Method, MethodStats> stats = new ConcurrentHashMap<>();
+        
+        <T> T wrap(Class<T> type, T target) {
+            Map<Method, MethodStats> byMethod = new HashMap<>();
+            for (Method method : type.getMethods()) {
+                if (!Modifier.isStatic(method.getModifiers())) {
+                    byMethod.put(method, stats.computeIfAbsent(method, key -> new MethodStats()));
+                }
+            }
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+                    new Dispatcher(target, byMethod)));
+        }
+        
+        // Null stats means an Object method, which passes straight through
+        private static final class MethodHandler {
+            final Method method;
+            final Object target;
+            final MethodStats stats;
+            
+            MethodHandler(Method method, Object target, MethodStats stats) {
+                this.method = method;
+                this.target = target;
+                this.stats = stats;
+            }
+            
+            Object invoke(Object[] args) throws Throwable {
+                if (stats == null) {
+                    return method.invoke(target, args);
+                }
+                stats.calls.increment();
+                if (ThreadLocalRandom.current().nextInt(SAMPLE_RATE) != 0) {
+                    return call(args);
+                }
+                long start = System.nanoTime();
+                try {
+                    return call(args);
+                } finally {
+                    stats.latency.record(System.nanoTime() - start);
+                }
+            }
+            
+            private Object call(Object[] args) throws Throwable {
+                try {
+                    return method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    stats.errors.increment();
+                    throw e.getCause();
+                }
+            }
+        }
+        
+        // The proxy passes its own Method copies, not the instances getMethods() returned, so
+        // each is bound to a handler on first use and then found by identity in a small
+        // copy-on-write array; the steady-state call path does no map lookup
+        private static final class Dispatcher implements InvocationHandler {
+            private final Object target;
+            private final Map<Method, MethodStats> byMethod;
+            private volatile MethodHandler[] handlers = new MethodHandler[0];
+            
+            Dispatcher(Object target, Map<Method, MethodStats> byMethod) {
+                this.target = target;
+                this.byMethod = byMethod;
+            }
+            
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                MethodHandler[] known = handlers;
+                for (MethodHandler handler : known) {
+                    if (handler.method == method) {
+                        return handler.invoke(args);
+                    }
+                }
+                return bind(method).invoke(args);
+            }
+            
+            private synchronized MethodHandler bind(Method method) {
+                for (MethodHandler handler : handlers) {
+                    if (handler.method == method) {
+                        return handler;
+                    }
+                }
+                MethodHandler handler = new MethodHandler(method, target, byMethod.get(method));
+                MethodHandler[] grown = Arrays.copyOf(handlers, handlers.length + 1);
+                grown[handlers.length] = handler;
+                handlers = grown;
+                return handler;
+            }
+        }
+        
+        // Export: drains every method's counters and histogram
+        List<MethodSnapshot> snapshotAndReset() {
+            Map<String, MethodStats> bySignature = new TreeMap<>();
+            stats.forEach((method, methodStats) -> bySignature.put(signature(method), methodStats));
+            List<MethodSnapshot> result = new ArrayList<>();
+            bySignature.forEach((signature, methodStats) -> result.add(new MethodSnapshot(signature,
+                    methodStats.calls.sumThenReset(), methodStats.errors.sumThenReset(),
+                    methodStats.latency.snapshotAndReset())));
+            return result;
+        }
+        
+        // Full signature, e.g. "com.example.Printer.print(java.lang.String)"
+        static String signature(Method method) {
+            StringJoiner parameters = new StringJoiner(",", "(", ")");
+            for (Class<?> parameter : method.getParameterTypes()) {
+                parameters.add(parameter.getTypeName());
+            }
+            return method.getDeclaringClass().getTypeName() + "." + method.getName() + parameters;
         }
     }
     
@@ -85,5 +562,167 @@ public class DecoratorDemo {
         System.out.println("- Add responsibilities dynamically");
         System.out.println("- More flexible than inheritance");
         System.out.println("- Can combine decorators in any order");
+        
+        // Fusion: the same stack as one flat object
+        FusedCoffee fused = ((CoffeeDecorator) coffee).freeze();
+        System.out.println();
+        System.out.println("Fused: " + fused.getDescription() + " - $" + fused.getCost() + " " + fused.getAddOns()
+                + ", matches chain: " + (fused.getCost() == coffee.getCost()
+                        && fused.getDescription().equals(coffee.getDescription())));
+    }
+    
+    // Fusion, bulk pricing and instrumentation overhead; run from BenchmarkApp
+    public static void benchmark() {
+        System.out.println("\n--- Decorator Pattern benchmarks ---");
+        compareFusion();
+        compareBulkPricing(10_000_000);
+        measureInstrumentation();
+    }
+    
+    // Decorator overhead: the same coffee called directly, through a bare proxy and instrumented
+    private static void measureInstrumentation() {
+        Coffee target = new MilkDecorator(new SugarDecorator(new SimpleCoffee())).freeze();
+        Coffee bare = (Coffee) Proxy.newProxyInstance(Coffee.class.getClassLoader(), new Class<?>[] {Coffee.class},
+                (proxy, method, args) -> method.invoke(target, args));
+        Instrumentation instrumentation = new Instrumentation();
+        Coffee instrumented = instrumentation.wrap(Coffee.class, target);
+        
+        int calls = 5_000_000;
+        double direct = 0, proxied = 0, recorded = 0;
+        for (int round = 0; round < 3; round++) {
+            direct = timeCalls(target, calls);
+            proxied = timeCalls(bare, calls);
+            recorded = timeCalls(instrumented, calls);
+            instrumentation.snapshotAndReset(); // discard warm-up rounds
+        }
+        // Two clock reads per sampled call are the floor of any timing decorator; report their
+        // share amortized over the sample rate
+        long clockSink = 0;
+        long clockStart = System.nanoTime();
+        for (int i = 0; i < calls; i++) {
+            clockSink += System.nanoTime();
+        }
+        double clock = (double) (System.nanoTime() - clockStart) / calls;
+        System.out.printf("  getCost: direct %.1f ns, bare proxy %.1f ns, instrumented %.1f ns "
+                + "(+%.1f ns recording, of which %.1f ns clock reads at 1 in %d)%n",
+                direct, proxied, recorded, recorded - proxied,
+                2 * clock / Instrumentation.SAMPLE_RATE + (clockSink == 42 ? 1 : 0), Instrumentation.SAMPLE_RATE);
+        
+        // Errors are counted and rethrown unwrapped
+        Coffee flaky = instrumentation.wrap(Coffee.class, new Coffee() {
+            private int calls;
+            public String getDescription() {
+                if (++calls % 10 == 0) {
+                    throw new IllegalStateException("out of beans");
+                }
+                return "Flaky coffee";
+            }
+            public double getCost() { return 2.0; }
+        });
+        for (int i = 0; i < 100; i++) {
+            try {
+                flaky.getDescription();
+            } catch (IllegalStateException expected) {
+                // counted by the decorator
+            }
+        }
+        timeCalls(instrumented, 100_000);
+        for (MethodSnapshot snapshot : instrumentation.snapshotAndReset()) {
+            System.out.println("  " + snapshot);
+        }
+    }
+    
+    private static double timeCalls(Coffee coffee, int calls) {
+        double sink = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < calls; i++) {
+            sink += coffee.getCost();
+        }
+        long elapsed = System.nanoTime() - start;
+        if (sink == 42) {
+            System.out.print("");
+        }
+        return (double) elapsed / calls;
+    }
+    
+    // Prices a batch with the fixed-point engine at 1..N threads and checks it against the object chains
+    private static void compareBulkPricing(int orders) {
+        OrderBatch batch = OrderBatch.random(orders, 6, 42);
+        long[] expected = null;
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads <= cores; threads = (threads < cores && threads * 2 > cores) ? cores : threads * 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                BulkPricingEngine engine = new BulkPricingEngine(pool);
+                long best = Long.MAX_VALUE;
+                for (int run = 0; run < 3; run++) {
+                    long start = System.nanoTime();
+                    long[] totals = engine.price(batch);
+                    best = Math.min(best, System.nanoTime() - start);
+                    if (expected == null) {
+                        expected = totals;
+                    } else if (!Arrays.equals(expected, totals)) {
+                        throw new IllegalStateException("Totals differ at " + threads + " threads");
+                    }
+                }
+                System.out.printf("  bulk pricing %,d orders on %d thread(s): %.1f ms, %.0f M orders/s%n",
+                        orders, threads, best / 1e6, orders * 1e3 / best);
+            } finally {
+                pool.shutdown();
+            }
+        }
+        
+        // Object path: same orders through real decorator chains, rounded to cents
+        int checked = Math.min(orders, 1_000_000);
+        int mismatches = 0, drifted = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < checked; i++) {
+            double cost = batch.toCoffee(i).getCost();
+            if (Math.round(cost * 100) != expected[i]) {
+                mismatches++;
+            }
+            if (cost != expected[i] / 100.0) {
+                drifted++;
+            }
+        }
+        long objectNanos = System.nanoTime() - start;
+        System.out.printf("  object path %,d orders: %.0f ns/order, cent mismatches=%d, double drift in %,d orders%n",
+                checked, (double) objectNanos / checked, mismatches, drifted);
+    }
+    
+    // Repeated queries on decorator chains of depth 1 to 1000, recursive vs fused
+    private static void compareFusion() {
+        // A decorator written the classic way, overriding only getDescription/getCost, is not fused away
+        Coffee whipped = new SugarDecorator(new CoffeeDecorator(new MilkDecorator(new SimpleCoffee())) {
+            public String getDescription() { return coffee.getDescription() + ", whip"; }
+            public double getCost() { return coffee.getCost() + 0.7; }
+        });
+        FusedCoffee fusedWhip = FusedCoffee.freeze(whipped);
+        System.out.println("  classic decorator: chain \"" + whipped.getDescription() + "\" $" + whipped.getCost()
+                + ", fused \"" + fusedWhip.getDescription() + "\" $" + fusedWhip.getCost());
+        
+        for (int depth : new int[] {1, 10, 100, 1000}) {
+            Coffee chain = new SimpleCoffee();
+            for (int i = 0; i < depth; i++) {
+                chain = (i % 3 == 0) ? new SugarDecorator(chain) : new MilkDecorator(chain);
+            }
+            Coffee lazy = FusedCoffee.lazy(chain);
+            int queries = Math.max(100, 200_000 / depth);
+            
+            long sink = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < queries; i++) {
+                sink += (long) chain.getCost() + chain.getDescription().length();
+            }
+            long chainNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < queries; i++) {
+                sink += (long) lazy.getCost() + lazy.getDescription().length();
+            }
+            long fusedNanos = System.nanoTime() - start;
+            boolean same = lazy.getCost() == chain.getCost() && lazy.getDescription().equals(chain.getDescription());
+            System.out.printf("  depth %4d: chain %9.0f ns/query, fused %5.0f ns/query, identical=%b (%d)%n",
+                    depth, (double) chainNanos / queries, (double) fusedNanos / queries, same, sink % 10);
+        }
     }
 }
\ No newline at end of file
@@ -1,48 +1,390 @@
 package com.designpatterns.structural.facade;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 /**
  * Facade Pattern - Provides simplified interface to complex subsystem.
  * Simple example: Home theater system with multiple components.
  */
 public class FacadeDemo {
     
-    // Complex subsystem classes
-    static class TV {
-        public void on() { System.out.println("TV is on"); }
-        public void off() { System.out.println("TV is off"); }
+    // Complex subsystem classes; each device can simulate a slow or failing power-on
+    abstract static class Device {
+        private final String name;
+        private final long startupMillis;
+        private final boolean failing;
+        
+        Device(String name, long startupMillis, boolean failing) {
+            this.name = name;
+            this.startupMillis = startupMillis;
+            this.failing = failing;
+        }
+        
+        public void on() {
+            pause(startupMillis);
+            if (failing) {
+                throw new IllegalStateException(name + " failed to power on");
+            }
+            System.out.println(name + " is on");
+        }
+        
+        public void off() { System.out.println(name + " is off"); }
+        
+        static void pause(long millis) {
+            if (millis <= 0) {
+                return;
+            }
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("interrupted");
+            }
+        }
+    }
+    
+    static class TV extends Device {
+        public TV() { this(0, false); }
+        public TV(long startupMillis, boolean failing) { super("TV", startupMillis, failing); }
     }
     
-    static class SoundSystem {
-        public void on() { System.out.println("Sound system is on"); }
-        public void off() { System.out.println("Sound system is off"); }
+    static class SoundSystem extends Device {
+        public SoundSystem() { this(0, false); }
+        public SoundSystem(long startupMillis, boolean failing) { super("Sound system", startupMillis, failing); }
         public void setVolume(int volume) { System.out.println("Volume set to " + volume); }
     }
     
-    static class DVDPlayer {
-        public void on() { System.out.println("DVD player is on"); }
-        public void off() { System.out.println("DVD player is off"); }
-        public void play() { System.out.println("Playing DVD"); }
+    static class DVDPlayer extends Device {
+        private final long spinUpMillis;
+        
+        public DVDPlayer() { this(0, 0, false); }
+        public DVDPlayer(long startupMillis, long spinUpMillis, boolean failing) {
+            super("DVD player", startupMillis, failing);
+            this.spinUpMillis = spinUpMillis;
+        }
+        public void play() {
+            pause(spinUpMillis);
+            System.out.println("Playing DVD");
+        }
+    }
+    
+    static class StartupException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        private final StartupReport report;
+        
+        StartupException(String message, Throwable cause, StartupReport report) {
+            super(message, cause);
+            this.report = report;
+        }
+        
+        public StartupReport getReport() { return report; }
+    }
+    
+    // Timing of one step, relative to the start of the run; -1 if it never ran
+    static final class StepTiming {
+        final String step;
+        final long startMillis;
+        final long durationMillis;
+        final String outcome;
+        
+        StepTiming(String step, long startMillis, long durationMillis, String outcome) {
+            this.step = step;
+            this.startMillis = startMillis;
+            this.durationMillis = durationMillis;
+            this.outcome = outcome;
+        }
+    }
+    
+    static final class StartupReport {
+        final List<StepTiming> steps;
+        final long elapsedMillis;
+        
+        StartupReport(List<StepTiming> steps, long elapsedMillis) {
+            this.steps = steps;
+            this.elapsedMillis = elapsedMillis;
+        }
+        
+        // What the same steps would have cost run one after another
+        long serialMillis() {
+            return steps.stream().filter(t -> t.durationMillis > 0).mapToLong(t -> t.durationMillis).sum();
+        }
+        
+        void print() {
+            for (StepTiming t : steps) {
+                System.out.printf("  %-12s start %4d ms, took %4d ms  %s%n", t.step, t.startMillis, t.durationMillis, t.outcome);
+            }
+            System.out.printf("  critical path %d ms vs serial %d ms%n", elapsedMillis, serialMillis());
+        }
+    }
+    
+    // Dependency-aware startup: steps only wait on what they declare, independent steps run
+    // in parallel, and on failure or timeout every completed step is rolled back in reverse
+    static final class StartupPlan {
+        // Per-step timeouts fire here; a timer only completes a future and interrupts a thread
+        private static final ScheduledExecutorService TIMEOUTS = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "startup-timeouts");
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        private final Map<String, Step> steps = new LinkedHashMap<>();
+        
+        private static final class Step {
+            final String name;
+            final Runnable action;
+            final Runnable rollback;
+            final List<String> dependsOn;
+            final long timeoutMillis;
+            volatile long startNanos = -1, endNanos = -1;
+            volatile String outcome = "skipped";
+            Thread runner; // guarded by the RunState monitor
+            
+            Step(String name, Runnable action, Runnable rollback, List<String> dependsOn, long timeoutMillis) {
+                this.name = name;
+                this.action = action;
+                this.rollback = rollback;
+                this.dependsOn = dependsOn;
+                this.timeoutMillis = timeoutMillis;
+            }
+        }
+        
+        // Dependencies must be declared first, which also rules out cycles; rollback may be null
+        StartupPlan step(String name, Runnable action, Runnable rollback, long timeoutMillis, String... dependsOn) {
+            for (String dependency : dependsOn) {
+                if (!steps.containsKey(dependency)) {
+                    throw new IllegalArgumentException(name + " depends on undeclared step " + dependency);
+                }
+            }
+            if (steps.putIfAbsent(name, new Step(name, action, rollback, List.of(dependsOn), timeoutMillis)) != null) {
+                throw new IllegalArgumentException("Duplicate step " + name);
+            }
+            return this;
+        }
+        
+        StartupReport run(Executor executor, long timeoutMillis) {
+            RunState state = new RunState();
+            long runStart = System.nanoTime();
+            // Completed by the first step to fail, so the run aborts without waiting for
+            // independent steps that are still running
+            CompletableFuture<Void> firstFailure = new CompletableFuture<>();
+            Map<String, CompletableFuture<Void>> futures = new HashMap<>();
+            for (Step step : steps.values()) {
+                CompletableFuture<?>[] dependencies = step.dependsOn.stream().map(futures::get)
+                        .toArray(CompletableFuture<?>[]::new);
+                CompletableFuture<Void> done = new CompletableFuture<>();
+                CompletableFuture.allOf(dependencies).whenCompleteAsync((ignored, dependencyFailure) -> {
+                    if (dependencyFailure != null) {
+                        done.completeExceptionally(dependencyFailure);
+                    } else {
+                        state.execute(step, done);
+                    }
+                }, executor);
+                done.whenComplete((ignored, error) -> {
+                    if (error != null) {
+                        firstFailure.completeExceptionally(error);
+                    }
+                });
+                futures.put(step.name, done);
+            }
+            
+            Throwable failure = null;
+            try {
+                CompletableFuture<Void> all = CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0]));
+                CompletableFuture.anyOf(all, firstFailure).get(timeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                failure = e.getCause() instanceof CompletionException && e.getCause().getCause() != null
+                        ? e.getCause().getCause() : e.getCause();
+            } catch (TimeoutException e) {
+                failure = e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure = e;
+            }
+            if (failure != null) {
+                // Stop new steps, interrupt running ones, then undo whatever came up
+                for (Step step : state.abortAndAwait(timeoutMillis)) {
+                    if (step.rollback != null) {
+                        step.rollback.run();
+                    }
+                }
+            }
+            
+            StartupReport report = report(runStart);
+            if (failure != null) {
+                throw new StartupException("Startup failed: " + describe(failure), failure, report);
+            }
+            return report;
+        }
+        
+        private StartupReport report(long runStart) {
+            List<StepTiming> timings = new ArrayList<>();
+            long now = System.nanoTime();
+            for (Step step : steps.values()) {
+                long start = step.startNanos;
+                long end = step.endNanos >= 0 ? step.endNanos : now;
+                timings.add(start < 0 ? new StepTiming(step.name, -1, -1, step.outcome)
+                        : new StepTiming(step.name, (start - runStart) / 1_000_000, (end - start) / 1_000_000, step.outcome));
+            }
+            return new StartupReport(timings, (now - runStart) / 1_000_000);
+        }
+        
+        private static String describe(Throwable failure) {
+            return failure instanceof TimeoutException && failure.getMessage() == null ? "timed out" : failure.getMessage();
+        }
+        
+        // Tracks in-flight and completed steps of one run under a single monitor
+        private static final class RunState {
+            private final Deque<Step> completed = new ArrayDeque<>();
+            private final List<Step> running = new ArrayList<>();
+            private boolean aborted, rolledBack;
+            
+            // Runs one step and completes its future; the step's own timeout starts here, not
+            // when the plan was built, so time spent waiting on dependencies does not count
+            void execute(Step step, CompletableFuture<Void> done) {
+                synchronized (this) {
+                    if (aborted) {
+                        done.completeExceptionally(new CancellationException(step.name + " cancelled"));
+                        return;
+                    }
+                    step.runner = Thread.currentThread();
+                    running.add(step);
+                }
+                boolean succeeded = false, lateRollback = false;
+                Throwable error = null;
+                step.startNanos = System.nanoTime();
+                step.outcome = "running";
+                ScheduledFuture<?> timer = step.timeoutMillis <= 0 ? null : TIMEOUTS.schedule(
+                        () -> timeOut(step, done), step.timeoutMillis, TimeUnit.MILLISECONDS);
+                try {
+                    step.action.run();
+                    succeeded = true;
+                } catch (Throwable t) {
+                    error = t;
+                } finally {
+                    if (timer != null) {
+                        timer.cancel(false);
+                    }
+                    step.endNanos = System.nanoTime();
+                    if (succeeded) {
+                        step.outcome = "ok";
+                    } else if (done.isCompletedExceptionally()) {
+                        step.outcome = "timed out";
+                    } else if (error instanceof CancellationException) {
+                        step.outcome = "cancelled";
+                    } else {
+                        step.outcome = "failed";
+                    }
+                    synchronized (this) {
+                        running.remove(step);
+                        step.runner = null;
+                        if (succeeded && rolledBack) {
+                            lateRollback = true; // finished after the run gave up on it
+                        } else if (succeeded) {
+                            completed.push(step); // newest first, the rollback order
+                        }
+                        notifyAll();
+                    }
+                    Thread.interrupted(); // don't leak an abort interrupt into the pool thread
+                }
+                if (succeeded) {
+                    done.complete(null);
+                } else {
+                    done.completeExceptionally(error);
+                }
+                if (lateRollback && step.rollback != null) {
+                    step.rollback.run();
+                }
+            }
+            
+            // Fails the step's future first, so the run aborts even if the action ignores the interrupt
+            private void timeOut(Step step, CompletableFuture<Void> done) {
+                if (done.completeExceptionally(new TimeoutException(step.name + " timed out after "
+                        + step.timeoutMillis + " ms"))) {
+                    synchronized (this) {
+                        if (step.runner != null) {
+                            step.runner.interrupt();
+                        }
+                    }
+                }
+            }
+            
+            synchronized List<Step> abortAndAwait(long graceMillis) {
+                aborted = true;
+                for (Step step : running) {
+                    step.runner.interrupt();
+                }
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(graceMillis);
+                try {
+                    while (!running.isEmpty()) {
+                        long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                        if (remaining <= 0) {
+                            break;
+                        }
+                        wait(remaining);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                rolledBack = true;
+                return new ArrayList<>(completed);
+            }
+        }
     }
     
     // Facade
     static class HomeTheaterFacade {
+        // Device power-on mostly sleeps, so startup gets its own threads rather than the common pool
+        private static final ExecutorService STARTUP_POOL = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "home-theater-startup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        private static final long STARTUP_TIMEOUT_MILLIS = 5_000;
+        
         private TV tv;
         private SoundSystem soundSystem;
         private DVDPlayer dvdPlayer;
         
         public HomeTheaterFacade() {
-            this.tv = new TV();
-            this.soundSystem = new SoundSystem();
-            this.dvdPlayer = new DVDPlayer();
+            this(new TV(), new SoundSystem(), new DVDPlayer());
+        }
+        
+        public HomeTheaterFacade(TV tv, SoundSystem soundSystem, DVDPlayer dvdPlayer) {
+            this.tv = tv;
+            this.soundSystem = soundSystem;
+            this.dvdPlayer = dvdPlayer;
         }
         
-        public void watchMovie() {
+        public StartupReport watchMovie() {
+            return watchMovie(STARTUP_TIMEOUT_MILLIS);
+        }
+        
+        public StartupReport watchMovie(long timeoutMillis) {
             System.out.println("Getting ready to watch movie...");
-            tv.on();
-            soundSystem.on();
-            soundSystem.setVolume(10);
-            dvdPlayer.on();
-            dvdPlayer.play();
+            return new StartupPlan()
+                    .step("tv", tv::on, tv::off, 0)
+                    .step("sound", soundSystem::on, soundSystem::off, 0)
+                    .step("volume", () -> soundSystem.setVolume(10), null, 0, "sound")
+                    .step("dvd", dvdPlayer::on, dvdPlayer::off, 0)
+                    .step("play", dvdPlayer::play, null, 0, "tv", "volume", "dvd")
+                    .run(STARTUP_POOL, timeoutMillis);
         }
         
         public void endMovie() {
@@ -61,4 +403,58 @@ public class FacadeDemo {
         System.out.println();
         homeTheater.endMovie();
     }
+    
+    // Startup scenarios with simulated slow, failing and hung devices; run from BenchmarkApp
+    public static void benchmark() {
+        System.out.println("\n--- Facade Pattern benchmarks ---");
+        
+        // Slow devices: parallel startup only waits for the longest dependency chain
+        HomeTheaterFacade slow = new HomeTheaterFacade(new TV(300, false), new SoundSystem(200, false),
+                new DVDPlayer(400, 100, false));
+        slow.watchMovie().print();
+        
+        // A device failure rolls back everything that already came up
+        System.out.println();
+        HomeTheaterFacade broken = new HomeTheaterFacade(new TV(100, false), new SoundSystem(50, false),
+                new DVDPlayer(200, 0, true));
+        try {
+            broken.watchMovie();
+        } catch (StartupException e) {
+            System.out.println(e.getMessage());
+            e.getReport().print();
+        }
+        
+        // The first failure aborts at once: the slow TV is interrupted instead of awaited
+        System.out.println();
+        HomeTheaterFacade failsEarly = new HomeTheaterFacade(new TV(3_000, false), new SoundSystem(50, true),
+                new DVDPlayer(100, 0, false));
+        long start = System.nanoTime();
+        try {
+            failsEarly.watchMovie();
+        } catch (StartupException e) {
+            System.out.println(e.getMessage() + " after " + (System.nanoTime() - start) / 1_000_000 + " ms");
+            e.getReport().print();
+        }
+        
+        // A per-step timeout starts with the step: play waits 400 ms for the DVD player,
+        // then has 150 ms of its own, of which it needs 100
+        System.out.println();
+        DVDPlayer dvd = new DVDPlayer(400, 100, false);
+        new StartupPlan()
+                .step("dvd", dvd::on, dvd::off, 0)
+                .step("play", dvd::play, null, 150, "dvd")
+                .run(HomeTheaterFacade.STARTUP_POOL, 1_000)
+                .print();
+        
+        // So does a device that hangs past the startup timeout
+        System.out.println();
+        HomeTheaterFacade hung = new HomeTheaterFacade(new TV(100, false), new SoundSystem(50, false),
+                new DVDPlayer(1_000, 0, false));
+        try {
+            hung.watchMovie(300);
+        } catch (StartupException e) {
+            System.out.println(e.getMessage());
+            e.getReport().print();
+        }
+    }
 }
\ No newline at end of file